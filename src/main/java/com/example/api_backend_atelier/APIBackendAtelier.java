@@ -7,12 +7,14 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.List;
 
 @SpringBootApplication
+@EnableScheduling
 public class APIBackendAtelier {
 
     private static final Logger log = LoggerFactory.getLogger(APIBackendAtelier.class);
@@ -36,6 +38,7 @@ public class APIBackendAtelier {
                         .allowedOrigins(allowedOrigins.toArray(String[]::new))
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH")
                         .allowedHeaders("*")
+                        .exposedHeaders("Authorization", "X-Refresh-Token")
                         .allowCredentials(true)
                         .maxAge(3600);
             }
@@ -0,0 +1,39 @@
+package com.example.api_backend_atelier.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncConfig.class);
+
+    private final ThreadPoolTaskExecutor mvcAsyncExecutor;
+
+    public AsyncConfig(@Value("${mvc.async.pool-size:4}") int poolSize,
+                       @Value("${mvc.async.queue-capacity:8}") int queueCapacity) {
+        this.mvcAsyncExecutor = new ThreadPoolTaskExecutor();
+        mvcAsyncExecutor.setCorePoolSize(poolSize);
+        mvcAsyncExecutor.setMaxPoolSize(poolSize);
+        mvcAsyncExecutor.setQueueCapacity(queueCapacity);
+        mvcAsyncExecutor.setThreadNamePrefix("mvc-async-");
+        mvcAsyncExecutor.initialize();
+        log.info("Пул асинхронных ответов MVC: {} потоков, очередь {}", poolSize, queueCapacity);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor);
+    }
+
+    @Override
+    public void destroy() {
+        mvcAsyncExecutor.shutdown();
+    }
+}
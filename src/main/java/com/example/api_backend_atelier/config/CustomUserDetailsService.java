@@ -1,30 +1,100 @@
 package com.example.api_backend_atelier.config;
 
 import com.example.api_backend_atelier.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
 
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private static final Logger log = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
     private final UserRepository userRepository;
+    private final Cache<String, Optional<CustomUserDetails>> userDetailsCache;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${auth.user-cache.ttl:5m}") Duration ttl,
+                                    @Value("${auth.user-cache.negative-ttl:30s}") Duration negativeTtl,
+                                    @Value("${auth.user-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.userDetailsCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new PresenceAwareExpiry(ttl, negativeTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetailsCache, "userDetails");
+    }
 
     @Override
     public UserDetails loadUserByUsername(String number) throws UsernameNotFoundException {
-        return userRepository.findByNumber(number)
-                .map(CustomUserDetails::new)
+        return userDetailsCache.get(number, key -> userRepository.findByNumber(key).map(CustomUserDetails::new))
                 .orElseThrow(() -> {
                     String errorMessage = String.format("Пользователь с номером %s не найден.", number);
                     log.error(errorMessage);
                     return new UsernameNotFoundException(errorMessage);
                 });
     }
-}
\ No newline at end of file
+
+    public void evict(String number) {
+        if (number == null) {
+            return;
+        }
+        userDetailsCache.invalidate(number);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userDetailsCache.invalidate(number);
+                }
+            });
+        }
+        log.debug("Данные пользователя {} удалены из кэша.", number);
+    }
+
+    public void evictAll(Collection<String> numbers) {
+        if (numbers.isEmpty()) {
+            return;
+        }
+        userDetailsCache.invalidateAll(numbers);
+        log.debug("Данные {} пользователей удалены из кэша.", numbers.size());
+    }
+
+    private record PresenceAwareExpiry(Duration ttl, Duration negativeTtl)
+            implements Expiry<String, Optional<CustomUserDetails>> {
+
+        @Override
+        public long expireAfterCreate(@NonNull String number, @NonNull Optional<CustomUserDetails> details, long currentTime) {
+            return details.isPresent() ? ttl.toNanos() : negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(@NonNull String number, @NonNull Optional<CustomUserDetails> details,
+                                      long currentTime, long currentDuration) {
+            return expireAfterCreate(number, details, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(@NonNull String number, @NonNull Optional<CustomUserDetails> details,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.api_backend_atelier.config;
+
+import com.example.api_backend_atelier.dto.ProductSummary;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldFilters() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .addFilter(ProductSummary.FIELDS_FILTER, SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
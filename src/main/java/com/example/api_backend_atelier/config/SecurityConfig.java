@@ -1,9 +1,12 @@
 package com.example.api_backend_atelier.config;
 
+import com.example.api_backend_atelier.security.BoundedPasswordEncoder;
 import com.example.api_backend_atelier.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,11 +14,14 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -26,9 +32,10 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http, @Autowired JwtAuthenticationFilter jwtAuthenticationFilter) throws Exception {
         return http
                 .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorizeRequests -> {
                     authorizeRequests
-                            .requestMatchers("/api/users/register", "/api/users/login", "/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html/**")
+                            .requestMatchers("/api/users/register", "/api/users/login", "/api/users/refresh", "/error", "/.well-known/jwks.json", "/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html/**")
                             .permitAll()
                             .requestMatchers("/api/admin/**", "/api/moderator/**", "/api/products/**").hasRole("ADMIN")
                             .requestMatchers("/api/moderator/**", "/api/products/**").hasRole("MODERATOR")
@@ -44,7 +51,14 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${security.password-hashing.pool-size:0}") int poolSize,
+                                           @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${security.password-hashing.timeout:5s}") Duration timeout,
+                                           @Value("${security.password-hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        int workers = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        log.info("Пул хеширования паролей: {} потоков, очередь {}", workers, queueCapacity);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), workers, queueCapacity,
+                timeout, retryAfterSeconds, meterRegistry);
     }
 }
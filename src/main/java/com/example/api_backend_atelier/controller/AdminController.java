@@ -1,8 +1,20 @@
 package com.example.api_backend_atelier.controller;
 
+import com.example.api_backend_atelier.dto.BulkUserRequest;
+import com.example.api_backend_atelier.dto.BulkUserResponse;
+import com.example.api_backend_atelier.dto.CursorPage;
+import com.example.api_backend_atelier.dto.ImportReport;
 import com.example.api_backend_atelier.dto.UserDto;
+import com.example.api_backend_atelier.dto.UserFilter;
+import com.example.api_backend_atelier.dto.UserHistoryDto;
 import com.example.api_backend_atelier.model.AppUser;
+import com.example.api_backend_atelier.exception.ServiceUnavailableException;
+import com.example.api_backend_atelier.security.JwtKeyStore;
+import com.example.api_backend_atelier.service.CacheStatisticsService;
+import com.example.api_backend_atelier.service.ImportFormat;
+import com.example.api_backend_atelier.service.UserImportService;
 import com.example.api_backend_atelier.service.UserService;
+import com.example.api_backend_atelier.model.Gender;
 import com.example.api_backend_atelier.model.Role;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,12 +23,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.UUID;
 
@@ -26,6 +45,9 @@ import java.util.UUID;
 public class AdminController {
 
     private final UserService userService;
+    private final JwtKeyStore jwtKeyStore;
+    private final CacheStatisticsService cacheStatisticsService;
+    private final UserImportService userImportService;
 
     private static final Logger log = LoggerFactory.getLogger(AdminController.class);
 
@@ -112,20 +134,60 @@ public class AdminController {
     @Operation(summary = "Получение списка всех пользователей (только для администратора)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Список пользователей успешно получен", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Некорректные фильтры, курсор или размер страницы", content = @Content),
             @ApiResponse(responseCode = "403", description = "Доступ запрещен - недостаточно прав", content = @Content),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
     })
-    public ResponseEntity<List<AppUser>> getAllUsers() {
-        log.info("Получение списка всех пользователей.");
+    public ResponseEntity<CursorPage<UserDto>> getAllUsers(
+            @RequestParam(required = false) Role role,
+            @RequestParam(required = false) Boolean enabled,
+            @RequestParam(required = false) Boolean locked,
+            @RequestParam(required = false) Gender gender,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime registeredFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime registeredTo,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+        log.info("Получение списка пользователей.");
         try {
-            List<AppUser> users = userService.getAllUsers();
-            return ResponseEntity.ok(users);
+            UserFilter filter = new UserFilter(role, enabled, locked, gender, registeredFrom, registeredTo);
+            return ResponseEntity.ok(userService.getUsers(filter, cursor, size));
+        } catch (IllegalArgumentException e) {
+            log.warn("Некорректные параметры списка пользователей: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             log.error("Ошибка при получении списка пользователей: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @GetMapping("/userHistory/{userId}")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "История действий пользователя, от новых к старым (только для администратора)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "История пользователя успешно получена", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Некорректный период, курсор или размер страницы", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Доступ запрещен - недостаточно прав", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Пользователь не найден", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+    })
+    public ResponseEntity<CursorPage<UserHistoryDto>> getUserHistory(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(userService.getUserHistory(userId, from, to, cursor, size));
+        } catch (IllegalArgumentException e) {
+            log.warn("Некорректные параметры истории пользователя {}: {}", userId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (NoSuchElementException e) {
+            log.warn("Пользователь с ID {} не найден.", userId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (Exception e) {
+            log.error("Ошибка при получении истории пользователя {}: ", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @PostMapping("/changeRole{userId}")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     @Operation(summary = "Изменение роли пользователя (только для администратора)")
@@ -138,9 +200,7 @@ public class AdminController {
     public ResponseEntity<?> changeUserRole(@PathVariable UUID userId, @RequestParam("role") Role role) {
         final String methodName = "changeUserRole";
         try {
-            AppUser user = userService.findById(userId);
-            user.setRole(role);
-            userService.save(user);
+            userService.changeUserRole(userId, role);
             return ResponseEntity.ok("Роль пользователя с ID " + userId + " успешно изменена на " + role + ".");
         } catch (IllegalArgumentException e) {
             log.warn("{}: Некорректная роль указана: {}", methodName, role);
@@ -154,4 +214,105 @@ public class AdminController {
         }
     }
 
+    @PostMapping(value = "/users/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "Массовый импорт пользователей из JSON или CSV файла (только для администратора)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Импорт выполнен, отчет по строкам в ответе", content = {@Content}),
+            @ApiResponse(responseCode = "400", description = "Файл не читается или не содержит обязательных столбцов", content = {@Content}),
+            @ApiResponse(responseCode = "503", description = "Другой импорт пользователей еще выполняется", content = {@Content}),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
+    })
+    public ResponseEntity<ImportReport> importUsers(@RequestParam("file") MultipartFile file) {
+        final String methodName = "importUsers";
+        ImportFormat format = ImportFormat.detect(file.getOriginalFilename(), file.getContentType());
+        try (InputStream input = file.getInputStream()) {
+            return ResponseEntity.ok(userImportService.importUsers(input, format));
+        } catch (ServiceUnavailableException e) {
+            log.warn("{}: {}", methodName, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        } catch (IllegalArgumentException | IOException e) {
+            log.error("{}: Ошибка чтения файла импорта {}: {}", methodName, file.getOriginalFilename(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            log.error("{}: Ошибка при импорте пользователей: ", methodName, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/bulk/changeRole")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "Массовое изменение роли пользователей по ID (только для администратора)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Роли изменены, результат по каждому пользователю в ответе", content = {@Content}),
+            @ApiResponse(responseCode = "400", description = "Пустой или слишком большой список, либо не указана роль", content = {@Content}),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
+    })
+    public ResponseEntity<?> changeUsersRole(@RequestBody BulkUserRequest request) {
+        final String methodName = "changeUsersRole";
+        try {
+            BulkUserResponse response = userService.changeRoleInBulk(request.getIds(), request.getRole());
+            log.info("{}: Роль {} назначена {} из {} пользователей", methodName, request.getRole(), response.getUpdated(), response.getRequested());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            log.warn("{}: Некорректный запрос: {}", methodName, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("{}: Ошибка при массовом изменении роли: ", methodName, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Произошла внутренняя ошибка сервера.");
+        }
+    }
+
+    @PostMapping("/jwks/rotate")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "Выпуск нового ключа подписи JWT (только для администратора)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Новый ключ создан и используется для подписи", content = {@Content}),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
+    })
+    public ResponseEntity<String> rotateSigningKey() {
+        try {
+            JwtKeyStore.SigningKey key = jwtKeyStore.rotate();
+            log.info("rotateSigningKey: Новый ключ подписи JWT {}", key.kid());
+            return ResponseEntity.ok(key.kid());
+        } catch (Exception e) {
+            log.error("rotateSigningKey: Ошибка при создании ключа подписи: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Произошла внутренняя ошибка сервера.");
+        }
+    }
+
+    @GetMapping("/cacheStats")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "Статистика кэшей по регионам (только для администратора)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Статистика успешно получена", content = {@Content}),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
+    })
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStats() {
+        try {
+            return ResponseEntity.ok(cacheStatisticsService.getSecondLevelCacheStatistics());
+        } catch (Exception e) {
+            log.error("getCacheStats: Ошибка при получении статистики кэшей: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/cacheStats/productQueries")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "Статистика попаданий в кэш каталога по запросам (только для администратора)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Статистика успешно получена", content = {@Content}),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
+    })
+    public ResponseEntity<Map<String, Map<String, Object>>> getProductQueryCacheStats() {
+        try {
+            return ResponseEntity.ok(cacheStatisticsService.getProductQueryStatistics());
+        } catch (Exception e) {
+            log.error("getProductQueryCacheStats: Ошибка при получении статистики кэша каталога: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
 }
@@ -0,0 +1,54 @@
+package com.example.api_backend_atelier.controller;
+
+import com.example.api_backend_atelier.security.JwtKeyStore;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@RestController(value = "Публичные ключи JWT")
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyStore jwtKeyStore;
+
+    @GetMapping("/.well-known/jwks.json")
+    @Operation(summary = "Публичные ключи для проверки подписи JWT (JWKS)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Набор ключей успешно получен", content = {@Content})
+    })
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        List<Map<String, String>> keys = jwtKeyStore.getPublishedKeys().stream()
+                .map(key -> Map.of(
+                        "kty", "RSA",
+                        "use", "sig",
+                        "alg", "RS256",
+                        "kid", key.kid(),
+                        "n", toBase64Url(key.publicKey().getModulus()),
+                        "e", toBase64Url(key.publicKey().getPublicExponent())))
+                .toList();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(Map.of("keys", keys));
+    }
+
+    private static String toBase64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
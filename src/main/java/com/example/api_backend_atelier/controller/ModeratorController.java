@@ -1,5 +1,7 @@
 package com.example.api_backend_atelier.controller;
 
+import com.example.api_backend_atelier.dto.BulkUserRequest;
+import com.example.api_backend_atelier.dto.BulkUserResponse;
 import com.example.api_backend_atelier.exception.UnauthorizedAccessException;
 import com.example.api_backend_atelier.model.AppUser;
 import com.example.api_backend_atelier.service.UserService;
@@ -165,6 +167,96 @@ public class ModeratorController {
         }
     }
 
+    @PostMapping("/bulk/block")
+    @PreAuthorize("hasAuthority('ROLE_MODERATOR') or hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "Массовая блокировка пользователей по номерам")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Пользователи заблокированы, результат по каждому номеру в ответе", content = {@Content}),
+            @ApiResponse(responseCode = "400", description = "Пустой или слишком большой список номеров", content = {@Content}),
+            @ApiResponse(responseCode = "401", description = "Неавторизованный доступ", content = {@Content}),
+            @ApiResponse(responseCode = "403", description = "Доступ запрещен - недостаточно прав", content = {@Content}),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
+    })
+    public ResponseEntity<?> blockUsers(@RequestBody BulkUserRequest request) {
+        try {
+            BulkUserResponse response = userService.setLockedInBulk(request.getNumbers(), true);
+            log.info("blockUsers(): Запрошено {}, заблокировано {}", response.getRequested(), response.getUpdated());
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            log.warn("blockUsers(): Некорректный запрос: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+
+        } catch (AccessDeniedException e) {
+            log.warn("blockUsers(): Доступ запрещен: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+
+        } catch (Exception e) {
+            log.error("blockUsers(): Ошибка при массовой блокировке пользователей: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/bulk/unblock")
+    @PreAuthorize("hasAuthority('ROLE_MODERATOR') or hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "Массовая разблокировка пользователей по номерам")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Пользователи разблокированы, результат по каждому номеру в ответе", content = {@Content}),
+            @ApiResponse(responseCode = "400", description = "Пустой или слишком большой список номеров", content = {@Content}),
+            @ApiResponse(responseCode = "401", description = "Неавторизованный доступ", content = {@Content}),
+            @ApiResponse(responseCode = "403", description = "Доступ запрещен - недостаточно прав", content = {@Content}),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
+    })
+    public ResponseEntity<?> unblockUsers(@RequestBody BulkUserRequest request) {
+        try {
+            BulkUserResponse response = userService.setLockedInBulk(request.getNumbers(), false);
+            log.info("unblockUsers(): Запрошено {}, разблокировано {}", response.getRequested(), response.getUpdated());
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            log.warn("unblockUsers(): Некорректный запрос: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+
+        } catch (AccessDeniedException e) {
+            log.warn("unblockUsers(): Доступ запрещен: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+
+        } catch (Exception e) {
+            log.error("unblockUsers(): Ошибка при массовой разблокировке пользователей: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/bulk/lookup")
+    @PreAuthorize("hasAuthority('ROLE_MODERATOR') or hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "Получение информации о пользователях по списку номеров")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Информация получена, результат по каждому номеру в ответе", content = {@Content}),
+            @ApiResponse(responseCode = "400", description = "Пустой или слишком большой список номеров", content = {@Content}),
+            @ApiResponse(responseCode = "401", description = "Неавторизованный доступ", content = {@Content}),
+            @ApiResponse(responseCode = "403", description = "Доступ запрещен - недостаточно прав", content = {@Content}),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
+    })
+    public ResponseEntity<?> lookupUsers(@RequestBody BulkUserRequest request) {
+        try {
+            BulkUserResponse response = userService.lookupInBulk(request.getNumbers());
+            log.info("lookupUsers(): Запрошено {} номеров", response.getRequested());
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            log.warn("lookupUsers(): Некорректный запрос: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+
+        } catch (AccessDeniedException e) {
+            log.warn("lookupUsers(): Доступ запрещен: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+
+        } catch (Exception e) {
+            log.error("lookupUsers(): Ошибка при получении информации о пользователях: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @PreAuthorize("hasAuthority('ROLE_MODERATOR') and hasAuthority('ROLE_ADMIN')")
     @GetMapping("/userId/{userId}")
     @Operation(summary = "Получение информации о пользователе по ID")
@@ -1,30 +1,53 @@
 package com.example.api_backend_atelier.controller;
 
+import com.example.api_backend_atelier.dto.CursorPage;
+import com.example.api_backend_atelier.dto.ImportReport;
+import com.example.api_backend_atelier.dto.ProductBulkRequest;
+import com.example.api_backend_atelier.dto.ProductBulkResult;
 import com.example.api_backend_atelier.dto.ProductCreateDto;
+import com.example.api_backend_atelier.dto.ProductSearchCriteria;
+import com.example.api_backend_atelier.dto.ProductSummary;
 import com.example.api_backend_atelier.exception.ProductAlreadyExistsException;
 import com.example.api_backend_atelier.exception.ProductNotFoundException;
+import com.example.api_backend_atelier.exception.ServiceUnavailableException;
 import com.example.api_backend_atelier.exception.UnauthorizedAccessException;
 import com.example.api_backend_atelier.model.AppUser;
 import com.example.api_backend_atelier.model.Gender;
 import com.example.api_backend_atelier.model.Product;
+import com.example.api_backend_atelier.model.ProductSort;
+import com.example.api_backend_atelier.service.ImportFormat;
+import com.example.api_backend_atelier.service.ProductExportService;
+import com.example.api_backend_atelier.service.ProductImportService;
 import com.example.api_backend_atelier.service.ProductService;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController(value="Панелька управления продуктами")
 @RequestMapping(value = "/api/products")
@@ -34,23 +57,40 @@ public class ProductController {
 
     private final ProductService productService;
 
-    public ProductController(ProductService productService) {
+    private final ProductExportService productExportService;
+
+    private final ProductImportService productImportService;
+
+    public ProductController(ProductService productService, ProductExportService productExportService,
+                             ProductImportService productImportService) {
         this.productService = productService;
+        this.productExportService = productExportService;
+        this.productImportService = productImportService;
     }
 
     @GetMapping("/getAllProducts")
     @Operation(summary = "Получение всех продуктов")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Список продуктов успешно получен", content = {@Content}),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер страницы", content = {@Content}),
+            @ApiResponse(responseCode = "503", description = "Сервис перегружен", content = {@Content}),
             @ApiResponse(responseCode = "401", description = "Неавторизованный доступ", content = {@Content}),
             @ApiResponse(responseCode = "403", description = "Доступ запрещен", content = {@Content}),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
     })
-    public ResponseEntity<List<Product>> getAllProducts() {
+    public ResponseEntity<MappingJacksonValue> getAllProducts(
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
         try {
-            List<Product> products = productService.getAllProducts();
-            return ResponseEntity.ok(products);
+            CursorPage<ProductSummary> products = productService.getAllProducts(cursor, size);
+            return ResponseEntity.ok(withFields(products, fields));
 
+        } catch (ServiceUnavailableException e) {
+            log.warn("Сервис перегружен при получении всех продуктов: {}", e.getMessage());
+            return serviceUnavailable(e);
+        } catch (IllegalArgumentException e) {
+            log.error("Неверный аргумент при получении всех продуктов: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (UnauthorizedAccessException e) {
             log.error("Ошибка авторизации при получении всех продуктов: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -208,17 +248,20 @@ public class ProductController {
             @ApiResponse(responseCode = "401", description = "Неавторизованный доступ", content = {@Content}),
             @ApiResponse(responseCode = "403", description = "Доступ запрещен", content = {@Content}),
             @ApiResponse(responseCode = "404", description = "Продукты не найдены", content = {@Content}),
+            @ApiResponse(responseCode = "503", description = "Сервис перегружен", content = {@Content}),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
     })
-    public ResponseEntity<List<Product>> getProductsByGender(@PathVariable Gender gender) {
+    public ResponseEntity<MappingJacksonValue> getProductsByGender(
+            @PathVariable Gender gender, @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
         try {
-            List<Product> products = productService.getProductsByGender(gender);
+            CursorPage<ProductSummary> products = productService.getProductsByGender(gender, cursor, size);
 
-            if (products == null || products.isEmpty()) {
+            if (products.getItems().isEmpty() && cursor == null) {
                 throw new ProductNotFoundException("Продукты не найдены для gender: " + gender);
             }
 
-            return ResponseEntity.ok(products);
+            return ResponseEntity.ok(withFields(products, fields));
 
         } catch (UnauthorizedAccessException e) {
             log.error("Ошибка авторизации при получении продуктов по полу: {}", e.getMessage());
@@ -229,6 +272,9 @@ public class ProductController {
         } catch (ProductNotFoundException e) {
             log.error("Продукты не найдены: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (ServiceUnavailableException e) {
+            log.warn("Сервис перегружен при получении продуктов по полу: {}", e.getMessage());
+            return serviceUnavailable(e);
         } catch (IllegalArgumentException e) {
             log.error("Неверный аргумент при получении продуктов по полу: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -246,18 +292,21 @@ public class ProductController {
             @ApiResponse(responseCode = "401", description = "Неавторизованный доступ", content = {@Content}),
             @ApiResponse(responseCode = "403", description = "Доступ запрещен", content = {@Content}),
             @ApiResponse(responseCode = "404", description = "Продукты не найдены", content = {@Content}),
+            @ApiResponse(responseCode = "503", description = "Сервис перегружен", content = {@Content}),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
     })
-    public ResponseEntity<List<Product>> getProductsByPriceRange(
-            @RequestParam Double minPrice, @RequestParam Double maxPrice) {
+    public ResponseEntity<MappingJacksonValue> getProductsByPriceRange(
+            @RequestParam Double minPrice, @RequestParam Double maxPrice,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
         try {
-            List<Product> products = productService.getProductsByPriceRange(minPrice, maxPrice);
+            CursorPage<ProductSummary> products = productService.getProductsByPriceRange(minPrice, maxPrice, cursor, size);
 
-            if (products == null || products.isEmpty()) {
+            if (products.getItems().isEmpty() && cursor == null) {
                 throw new ProductNotFoundException("Продукты не найдены в данном ценовом диапазоне");
             }
 
-            return ResponseEntity.ok(products);
+            return ResponseEntity.ok(withFields(products, fields));
 
         } catch (UnauthorizedAccessException e) {
             log.error("Ошибка авторизации при получении продуктов по цене: {}", e.getMessage());
@@ -268,6 +317,9 @@ public class ProductController {
         } catch (ProductNotFoundException e) {
             log.error("Продукты не найдены: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (ServiceUnavailableException e) {
+            log.warn("Сервис перегружен при получении продуктов по цене: {}", e.getMessage());
+            return serviceUnavailable(e);
         } catch (IllegalArgumentException e) {
             log.error("Неверный аргумент при получении продуктов по цене: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -278,16 +330,202 @@ public class ProductController {
     }
 
     @GetMapping("/productBetweenDate")
-    public ResponseEntity<List<Product>> getProductsCreatedBetween(
-            @RequestParam String startDate, @RequestParam String endDate) {
-        LocalDateTime start = LocalDateTime.parse(startDate);
-        LocalDateTime end = LocalDateTime.parse(endDate);
-        return ResponseEntity.ok(productService.getProductsCreatedBetween(start, end));
+    @Operation(summary = "Получение продуктов, созданных в указанном периоде")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Продукты успешно получены", content = {@Content}),
+            @ApiResponse(responseCode = "400", description = "Некорректные даты, курсор, размер страницы или поля", content = {@Content}),
+            @ApiResponse(responseCode = "503", description = "Сервис перегружен, повторите позже", content = {@Content})
+    })
+    public ResponseEntity<MappingJacksonValue> getProductsCreatedBetween(
+            @RequestParam String startDate, @RequestParam String endDate,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        try {
+            LocalDateTime start = LocalDateTime.parse(startDate);
+            LocalDateTime end = LocalDateTime.parse(endDate);
+            return ResponseEntity.ok(withFields(productService.getProductsCreatedBetween(start, end, cursor, size), fields));
+        } catch (ServiceUnavailableException e) {
+            log.warn("Сервис перегружен при получении продуктов за период: {}", e.getMessage());
+            return serviceUnavailable(e);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            log.error("Неверный аргумент при получении продуктов за период: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
     }
 
 
     @GetMapping("/productByCategory/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
-        return ResponseEntity.ok(productService.getProductsByCategory(category));
+    public ResponseEntity<MappingJacksonValue> getProductsByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(withFields(productService.getProductsByCategory(category, cursor, size), fields));
+        } catch (ServiceUnavailableException e) {
+            log.warn("Сервис перегружен при получении продуктов по категории: {}", e.getMessage());
+            return serviceUnavailable(e);
+        } catch (IllegalArgumentException e) {
+            log.error("Неверный аргумент при получении продуктов по категории: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Поиск продуктов по нескольким фильтрам с сортировкой")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Список продуктов успешно получен", content = {@Content}),
+            @ApiResponse(responseCode = "400", description = "Некорректные фильтры, курсор или размер страницы", content = {@Content}),
+            @ApiResponse(responseCode = "503", description = "Сервис перегружен", content = {@Content}),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
+    })
+    public ResponseEntity<MappingJacksonValue> searchProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Gender gender,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) ProductSort sort,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        try {
+            ProductSearchCriteria criteria = new ProductSearchCriteria(category, gender, minPrice, maxPrice,
+                    createdFrom, createdTo, sort);
+            return ResponseEntity.ok(withFields(productService.searchProducts(criteria, cursor, size), fields));
+        } catch (ServiceUnavailableException e) {
+            log.warn("Сервис перегружен при поиске продуктов: {}", e.getMessage());
+            return serviceUnavailable(e);
+        } catch (IllegalArgumentException e) {
+            log.error("Неверный аргумент при поиске продуктов: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            log.error("Внутренняя ошибка сервера при поиске продуктов: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/fulltext")
+    @Operation(summary = "Полнотекстовый поиск продуктов по описанию и категории")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Результаты поиска успешно получены", content = {@Content}),
+            @ApiResponse(responseCode = "400", description = "Пустой запрос, некорректный курсор, размер страницы или поля", content = {@Content}),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
+    })
+    public ResponseEntity<MappingJacksonValue> searchFullText(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(withFields(productService.searchFullText(q, cursor, size), fields));
+        } catch (IllegalArgumentException e) {
+            log.error("Неверный аргумент при полнотекстовом поиске: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            log.error("Внутренняя ошибка сервера при полнотекстовом поиске: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/bulk")
+    @Operation(summary = "Массовое изменение или удаление продуктов по фильтру")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Операция выполнена, возвращено число затронутых продуктов", content = {@Content}),
+            @ApiResponse(responseCode = "400", description = "Некорректный фильтр или параметры операции", content = {@Content}),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
+    })
+    public ResponseEntity<ProductBulkResult> applyBulk(@RequestBody ProductBulkRequest request) {
+        try {
+            return ResponseEntity.ok(productService.applyBulk(request));
+        } catch (IllegalArgumentException e) {
+            log.error("Неверный аргумент при массовой операции над продуктами: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            log.error("Внутренняя ошибка сервера при массовой операции над продуктами: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Массовый импорт продуктов из JSON или CSV файла")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Импорт выполнен полностью или до первой неустранимой ошибки, отчет по строкам в ответе", content = {@Content}),
+            @ApiResponse(responseCode = "400", description = "Файл не читается, ни одна строка не импортирована; причина в отчете", content = {@Content}),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
+    })
+    public ResponseEntity<ImportReport> importProducts(@RequestParam("file") MultipartFile file) {
+        ImportFormat format = ImportFormat.detect(file.getOriginalFilename(), file.getContentType());
+        try (InputStream input = file.getInputStream()) {
+            ImportReport report = productImportService.importProducts(input, format);
+            if (report.isAborted() && report.getImported() == 0) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(report);
+            }
+            return ResponseEntity.ok(report);
+        } catch (IOException e) {
+            log.error("Ошибка чтения файла импорта {}: {}", file.getOriginalFilename(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            log.error("Внутренняя ошибка сервера при импорте продуктов: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Потоковая выгрузка всего каталога в формате NDJSON или CSV")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Выгрузка начата", content = {@Content}),
+            @ApiResponse(responseCode = "400", description = "Неподдерживаемый формат", content = {@Content})
+    })
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ProductExportService.Format exportFormat;
+        try {
+            exportFormat = ProductExportService.Format.fromName(format);
+        } catch (IllegalArgumentException e) {
+            log.error("Неверный формат выгрузки каталога: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"products." + exportFormat.getExtension() + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(output -> {
+            if (!gzip) {
+                productExportService.export(exportFormat, output);
+                return;
+            }
+            GZIPOutputStream compressed = new GZIPOutputStream(output, 8192, true);
+            productExportService.export(exportFormat, compressed);
+            compressed.finish();
+        });
+    }
+
+    private MappingJacksonValue withFields(Object body, String fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (fields == null || fields.isBlank()) {
+            return value;
+        }
+        Set<String> requested = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+        if (!ProductSummary.FIELDS.containsAll(requested)) {
+            throw new IllegalArgumentException("Неизвестные поля: " + fields + ", допустимые: " + ProductSummary.FIELDS);
+        }
+        value.setFilters(new SimpleFilterProvider()
+                .addFilter(ProductSummary.FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(requested)));
+        return value;
+    }
+
+    private <T> ResponseEntity<T> serviceUnavailable(ServiceUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
     }
 }
@@ -1,15 +1,23 @@
 package com.example.api_backend_atelier.controller;
 
 import com.example.api_backend_atelier.dto.AuthRequest;
+import com.example.api_backend_atelier.dto.AuthTokens;
 import com.example.api_backend_atelier.dto.PasswordUpdateDto;
+import com.example.api_backend_atelier.dto.RefreshTokenRequest;
 import com.example.api_backend_atelier.dto.UserRegistrationRequest;
 import com.example.api_backend_atelier.exception.AuthenticationException;
+import com.example.api_backend_atelier.exception.ServiceUnavailableException;
+import com.example.api_backend_atelier.exception.TooManyRequestsException;
 import com.example.api_backend_atelier.exception.UnauthorizedAccessException;
 import com.example.api_backend_atelier.exception.UserAlreadyExistsException;
 import com.example.api_backend_atelier.model.AppUser;
 import com.example.api_backend_atelier.model.Gender;
 import com.example.api_backend_atelier.security.JwtAuthenticationFilter;
+import com.example.api_backend_atelier.security.JwtAuthenticationToken;
 import com.example.api_backend_atelier.security.JwtTokenProvider;
+import com.example.api_backend_atelier.security.LoginRateLimiter;
+import com.example.api_backend_atelier.security.TokenDenylist;
+import io.jsonwebtoken.Claims;
 import com.example.api_backend_atelier.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -17,11 +25,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -30,6 +38,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Objects;
+import java.util.Optional;
 
 @RestController(value="Юзер Панелька")
 @RequestMapping("/api/users")
@@ -38,8 +47,12 @@ public class UserController {
 
     private static final Logger log = LoggerFactory.getLogger(UserController.class);
 
+    private static final String REFRESH_TOKEN_HEADER = "X-Refresh-Token";
+
     private final UserService userService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenDenylist tokenDenylist;
+    private final LoginRateLimiter loginRateLimiter;
 
 
     @PostMapping("/register")
@@ -48,11 +61,14 @@ public class UserController {
             @ApiResponse(responseCode = "201", description = "Пользователь успешно зарегистрирован", content = {@Content}),
             @ApiResponse(responseCode = "400", description = "Неверный запрос - некорректные входные данные", content = {@Content}),
             @ApiResponse(responseCode = "409", description = "Конфликт - пользователь с таким номером телефона уже существует", content = {@Content}),
+            @ApiResponse(responseCode = "429", description = "Слишком много попыток", content = {@Content}),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
     })
-    public ResponseEntity<AppUser> registerUser(@Valid @RequestBody UserRegistrationRequest request, Gender gender) {
+    public ResponseEntity<AppUser> registerUser(@Valid @RequestBody UserRegistrationRequest request, Gender gender,
+                                                HttpServletRequest httpRequest) {
         log.info("Регистрация нового пользователя: {}", request.getNumber());
         try {
+            loginRateLimiter.check(request.getNumber(), httpRequest.getRemoteAddr());
             AppUser user = new AppUser();
             user.setNumber(request.getNumber());
             user.setPassword(request.getPassword());
@@ -67,6 +83,11 @@ public class UserController {
         } catch (UserAlreadyExistsException e) {
             log.warn("Ошибка регистрации пользователя, пользователь с таким номером телефона существует: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e);
+        } catch (ServiceUnavailableException e) {
+            log.warn("Регистрация отклонена из-за перегрузки: {}", e.getMessage());
+            return serviceUnavailable(e);
         } catch (Exception e) {
             log.error("Непредвиденная ошибка при регистрации пользователя: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -78,24 +99,53 @@ public class UserController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Успешная авторизация", content = {@Content}),
             @ApiResponse(responseCode = "400", description = "Ошибка авторизации - неверные учетные данные", content = {@Content}),
+            @ApiResponse(responseCode = "429", description = "Слишком много попыток входа", content = {@Content}),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
     })
-    public ResponseEntity<Void> login(@Valid @RequestBody AuthRequest authRequest, HttpServletResponse response) {
+    public ResponseEntity<Void> login(@Valid @RequestBody AuthRequest authRequest,
+                                      HttpServletRequest request, HttpServletResponse response) {
         log.info("Попытка входа пользователя с номером: {}", authRequest.getNumber());
         try {
-            String token = userService.authenticateUser(authRequest.getNumber(), authRequest.getPassword());
-            response.setHeader("Authorization", "Bearer " + token);
+            loginRateLimiter.check(authRequest.getNumber(), request.getRemoteAddr());
+            AuthTokens tokens = userService.authenticateUser(authRequest.getNumber(), authRequest.getPassword());
+            writeTokens(response, tokens);
             log.info("Пользователь успешно авторизован: {}", authRequest.getNumber());
             return ResponseEntity.ok().build();
         } catch (AuthenticationException e) {
             log.warn("Ошибка авторизации пользователя при аутентификации: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e);
+        } catch (ServiceUnavailableException e) {
+            log.warn("Вход отклонен из-за перегрузки: {}", e.getMessage());
+            return serviceUnavailable(e);
         } catch (Exception e) {
             log.error("Ошибка при авторизации пользователя: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @PostMapping("/refresh")
+    @Operation(summary = "Обновление пары токенов по refresh-токену")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Токены успешно обновлены", content = {@Content}),
+            @ApiResponse(responseCode = "401", description = "Refresh-токен недействителен, истек или уже использован", content = {@Content}),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
+    })
+    public ResponseEntity<Void> refresh(@Valid @RequestBody RefreshTokenRequest request, HttpServletResponse response) {
+        try {
+            AuthTokens tokens = userService.refreshTokens(request.getRefreshToken());
+            writeTokens(response, tokens);
+            return ResponseEntity.ok().build();
+        } catch (AuthenticationException e) {
+            log.warn("Ошибка обновления токенов: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        } catch (Exception e) {
+            log.error("Ошибка при обновлении токенов: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/me")
     @Operation(summary = "Получение информации о текущем пользователе")
     @PreAuthorize("isAuthenticated()")
@@ -104,15 +154,9 @@ public class UserController {
             @ApiResponse(responseCode = "401", description = "Ошибка авторизации - пользователь не авторизован", content = {@Content}),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
     })
-    public ResponseEntity<AppUser> getCurrentUser(HttpServletRequest request) {
+    public ResponseEntity<AppUser> getCurrentUser() {
         try {
-            String token = JwtAuthenticationFilter.getJwtFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
-                log.warn("getCurrentUser(): Неверный токен.");
-                throw new UnauthorizedAccessException("Неверный токен.");
-            }
-
-            String phoneNumber = jwtTokenProvider.getPhoneNumberFromToken(token);
+            String phoneNumber = currentPhoneNumber();
             AppUser currentUser = userService.getUserByPhoneNumber(phoneNumber);
             log.info("getCurrentUser(): Информация о текущем пользователе {} получена.", currentUser.getNumber());
             return ResponseEntity.ok(currentUser);
@@ -136,13 +180,16 @@ public class UserController {
     public ResponseEntity<Void> logoutUser(HttpServletRequest request) {
         try {
             log.info("Пользователь выходит.");
-            HttpSession session = request.getSession(false);
-            if (session != null) {
-                session.invalidate();
-                log.info("Сессия пользователя успешно завершена.");
+            String token = JwtAuthenticationFilter.getJwtFromRequest(request);
+            Optional<Claims> claims = token == null ? Optional.empty() : jwtTokenProvider.getVerifiedClaims(token);
+            if (claims.isPresent()) {
+                tokenDenylist.revoke(claims.get().getId(), claims.get().getExpiration());
+                userService.revokeRefreshToken(claims.get().getSubject());
+                SecurityContextHolder.clearContext();
+                log.info("Токен пользователя {} отозван.", claims.get().getSubject());
                 return ResponseEntity.ok().build();
             } else {
-                log.warn("Пользователь попытался выйти, но сессия отсутствует.");
+                log.warn("Пользователь попытался выйти, но токен отсутствует или недействителен.");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
             }
         } catch (Exception e) {
@@ -176,6 +223,9 @@ public class UserController {
         } catch (UnauthorizedAccessException e) {
             log.warn("Ошибка авторизации пользователя при обновлении пароля: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (ServiceUnavailableException e) {
+            log.warn("Смена пароля отклонена из-за перегрузки: {}", e.getMessage());
+            return serviceUnavailable(e);
         } catch (Exception e) {
             log.error("Ошибка при изменении пароля пользователя: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -189,16 +239,10 @@ public class UserController {
             @ApiResponse(responseCode = "401", description = "Ошибка авторизации - пользователь не авторизован", content = {@Content}),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = {@Content})
     })
-    public ResponseEntity<Boolean> canReset(HttpServletRequest request) {
+    public ResponseEntity<Boolean> canReset() {
         log.info("Проверка возможности сброса пароля.");
         try {
-            String token = JwtAuthenticationFilter.getJwtFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
-                log.warn("canReset(): Неверный токен.");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-            }
-
-            String phoneNumber = jwtTokenProvider.getPhoneNumberFromToken(token);
+            String phoneNumber = currentPhoneNumber();
             AppUser currentUser = userService.getUserByPhoneNumber(phoneNumber);
             boolean canReset = currentUser.canResetPassword();
 
@@ -213,4 +257,30 @@ public class UserController {
         }
     }
 
+    private <T> ResponseEntity<T> tooManyRequests(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+    }
+
+    private <T> ResponseEntity<T> serviceUnavailable(ServiceUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+    }
+
+    private void writeTokens(HttpServletResponse response, AuthTokens tokens) {
+        response.setHeader("Authorization", "Bearer " + tokens.getAccessToken());
+        response.setHeader(REFRESH_TOKEN_HEADER, tokens.getRefreshToken());
+    }
+
+    private String currentPhoneNumber() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (!(auth instanceof JwtAuthenticationToken) || !auth.isAuthenticated()) {
+            log.warn("currentPhoneNumber(): Неверный токен.");
+            throw new UnauthorizedAccessException("Неверный токен.");
+        }
+        return auth.getName();
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.api_backend_atelier.dto;
+
+import com.example.api_backend_atelier.model.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUserRequest {
+    private List<String> numbers;
+    private List<UUID> ids;
+    private Role role;
+}
@@ -0,0 +1,30 @@
+package com.example.api_backend_atelier.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkUserResponse {
+
+    public enum Outcome { UPDATED, UNCHANGED, FOUND, NOT_FOUND, INVALID }
+
+    public record Item(String key, Outcome outcome, UserDto user) {
+    }
+
+    private int requested;
+    private int updated;
+    private List<Item> items = new ArrayList<>();
+
+    public void add(String key, Outcome outcome) {
+        add(key, outcome, null);
+    }
+
+    public void add(String key, Outcome outcome, UserDto user) {
+        items.add(new Item(key, outcome, user));
+        if (outcome == Outcome.UPDATED) {
+            updated++;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.api_backend_atelier.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private int size;
+    private boolean hasNext;
+}
@@ -0,0 +1,53 @@
+package com.example.api_backend_atelier.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportReport {
+
+    public record RowError(long row, String key, String reason) {
+    }
+
+    private long totalRows;
+    private long imported;
+    private long duplicates;
+    private long invalid;
+    private long durationMs;
+    private double rowsPerSecond;
+    private boolean errorsTruncated;
+    private boolean aborted;
+    private String fatalError;
+    private List<RowError> errors = new ArrayList<>();
+
+    public void duplicate(long row, String key, String reason, int maxErrors) {
+        duplicates++;
+        addError(new RowError(row, key, reason), maxErrors);
+    }
+
+    public void invalid(long row, String key, String reason, int maxErrors) {
+        invalid++;
+        addError(new RowError(row, key, reason), maxErrors);
+    }
+
+    public void abort(long row, String reason) {
+        aborted = true;
+        fatalError = "Строка " + row + ": " + reason;
+    }
+
+    public void finish(long startedAtNanos) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - startedAtNanos);
+        durationMs = elapsedNanos / 1_000_000;
+        rowsPerSecond = totalRows * 1_000_000_000d / elapsedNanos;
+    }
+
+    private void addError(RowError error, int maxErrors) {
+        if (errors.size() < maxErrors) {
+            errors.add(error);
+        } else {
+            errorsTruncated = true;
+        }
+    }
+}
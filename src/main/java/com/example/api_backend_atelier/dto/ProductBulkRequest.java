@@ -0,0 +1,29 @@
+package com.example.api_backend_atelier.dto;
+
+import com.example.api_backend_atelier.model.Gender;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBulkRequest {
+
+    public enum Operation { SET_PRICE, SCALE_PRICE, SET_CATEGORY, DELETE }
+
+    private String category;
+    private Gender gender;
+    private List<Long> ids;
+
+    private Operation operation;
+    private Double price;
+    private Double percent;
+    private String newCategory;
+
+    public boolean hasFilter() {
+        return (category != null && !category.isBlank()) || gender != null || (ids != null && !ids.isEmpty());
+    }
+}
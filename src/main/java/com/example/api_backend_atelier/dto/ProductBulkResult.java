@@ -0,0 +1,12 @@
+package com.example.api_backend_atelier.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProductBulkResult {
+    private ProductBulkRequest.Operation operation;
+    private int affected;
+    private long durationMs;
+}
@@ -0,0 +1,30 @@
+package com.example.api_backend_atelier.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record ProductRankCursor(float rank, long id) {
+
+    public static final ProductRankCursor FIRST = new ProductRankCursor(Float.MAX_VALUE, Long.MAX_VALUE);
+
+    public static ProductRankCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+            }
+            return new ProductRankCursor(Float.parseFloat(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        String raw = rank + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.api_backend_atelier.dto;
+
+import com.example.api_backend_atelier.model.Gender;
+import com.example.api_backend_atelier.model.ProductSort;
+
+import java.time.LocalDateTime;
+
+public record ProductSearchCriteria(String category, Gender gender, Double minPrice, Double maxPrice,
+                                    LocalDateTime createdFrom, LocalDateTime createdTo, ProductSort sort) {
+
+    public ProductSearchCriteria {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("Минимальная цена не может быть больше максимальной");
+        }
+        if (createdFrom != null && createdTo != null && createdFrom.isAfter(createdTo)) {
+            throw new IllegalArgumentException("Начальная дата не может быть позже конечной");
+        }
+        if (category != null && category.isBlank()) {
+            category = null;
+        }
+        if (sort == null) {
+            sort = ProductSort.NEWEST;
+        }
+    }
+
+    public boolean matches(String productCategory, Gender productGender, Double price, LocalDateTime createdAt) {
+        return (category == null || category.equals(productCategory))
+                && (gender == null || gender == productGender)
+                && (price == null || ((minPrice == null || price >= minPrice) && (maxPrice == null || price <= maxPrice)))
+                && (createdAt == null || ((createdFrom == null || !createdAt.isBefore(createdFrom))
+                && (createdTo == null || !createdAt.isAfter(createdTo))));
+    }
+}
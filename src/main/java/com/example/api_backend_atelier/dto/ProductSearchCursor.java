@@ -0,0 +1,34 @@
+package com.example.api_backend_atelier.dto;
+
+import com.example.api_backend_atelier.model.ProductSort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public record ProductSearchCursor(ProductSort sort, Comparable<?> key, Long id) {
+
+    public static ProductSearchCursor of(ProductSort sort, ProductSummary product) {
+        return new ProductSearchCursor(sort, sort.keyOf(product), product.id());
+    }
+
+    public static ProductSearchCursor decode(String cursor, ProductSort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3 || !parts[0].equals(sort.name())) {
+                throw new IllegalArgumentException("Курсор не соответствует сортировке " + sort);
+            }
+            return new ProductSearchCursor(sort, sort.parseKey(parts[1]), Long.parseLong(parts[2]));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        String raw = sort.name() + "|" + key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.api_backend_atelier.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProductSearchHit {
+    private ProductSummary product;
+    private float rank;
+    private String snippet;
+}
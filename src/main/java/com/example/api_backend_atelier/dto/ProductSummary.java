@@ -0,0 +1,15 @@
+package com.example.api_backend_atelier.dto;
+
+import com.example.api_backend_atelier.model.Gender;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@JsonFilter(ProductSummary.FIELDS_FILTER)
+public record ProductSummary(Long id, Double price, String url, String category, Gender gender, LocalDateTime createdAt) {
+
+    public static final String FIELDS_FILTER = "productSummaryFields";
+
+    public static final Set<String> FIELDS = Set.of("id", "price", "url", "category", "gender", "createdAt");
+}
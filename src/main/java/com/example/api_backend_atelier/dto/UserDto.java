@@ -1,8 +1,11 @@
 package com.example.api_backend_atelier.dto;
 
+import com.example.api_backend_atelier.model.AppUser;
+import com.example.api_backend_atelier.model.Role;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
@@ -15,4 +18,10 @@ public class UserDto {
     private String email;
     private String status;
     private String role;
+    private LocalDateTime registeredAt;
+
+    public UserDto(UUID id, String name, String lastName, String number, String email,
+                   boolean enabled, boolean locked, Role role, LocalDateTime registeredAt) {
+        this(id, name, lastName, number, email, AppUser.frontendStatus(enabled, locked), role.name(), registeredAt);
+    }
 }
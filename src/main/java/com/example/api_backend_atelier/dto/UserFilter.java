@@ -0,0 +1,16 @@
+package com.example.api_backend_atelier.dto;
+
+import com.example.api_backend_atelier.model.Gender;
+import com.example.api_backend_atelier.model.Role;
+
+import java.time.LocalDateTime;
+
+public record UserFilter(Role role, Boolean enabled, Boolean locked, Gender gender,
+                         LocalDateTime registeredFrom, LocalDateTime registeredTo) {
+
+    public UserFilter {
+        if (registeredFrom != null && registeredTo != null && registeredFrom.isAfter(registeredTo)) {
+            throw new IllegalArgumentException("Начальная дата регистрации не может быть позже конечной");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.api_backend_atelier.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+public record UserHistoryCursor(LocalDateTime timestamp, UUID id) {
+
+    private static final UUID MAX_ID = new UUID(-1L, -1L);
+
+    public static UserHistoryCursor first(LocalDateTime upperBound) {
+        return new UserHistoryCursor(upperBound, MAX_ID);
+    }
+
+    public static UserHistoryCursor of(UserHistoryDto entry) {
+        return new UserHistoryCursor(entry.timestamp(), entry.id());
+    }
+
+    public static UserHistoryCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+            }
+            return new UserHistoryCursor(LocalDateTime.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.api_backend_atelier.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record UserHistoryDto(UUID id, String action, LocalDateTime timestamp, String details) {
+}
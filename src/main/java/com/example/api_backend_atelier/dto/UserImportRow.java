@@ -0,0 +1,15 @@
+package com.example.api_backend_atelier.dto;
+
+import com.example.api_backend_atelier.model.Gender;
+import lombok.Data;
+
+@Data
+public class UserImportRow {
+    private String number;
+    private String password;
+    private String name;
+    private String lastName;
+    private String email;
+    private String vkId;
+    private Gender gender;
+}
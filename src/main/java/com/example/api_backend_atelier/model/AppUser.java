@@ -5,13 +5,23 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
 @Table(name = "app_user")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "appUser")
+@NaturalIdCache(region = "appUserNaturalId")
+@DynamicUpdate
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -21,6 +31,9 @@ public class AppUser {
 
     private static final Logger log = LoggerFactory.getLogger(AppUser.class);
 
+    public static final String NUMBER_PATTERN = "^\\+?[0-9]{10,15}$";
+    public static final String VK_ID_PATTERN = "^https://vk\\.com/[a-zA-Z0-9_.]{3,}$";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -34,7 +47,8 @@ public class AppUser {
     private String lastName;
 
     @NotBlank(message = "Номер телефона обязателен.")
-    @Pattern(regexp = "^\\+?[0-9]{10,15}$", message = "Номер телефона должен быть в формате от 10 до 15 цифр, может начинаться с '+'.")
+    @Pattern(regexp = NUMBER_PATTERN, message = "Номер телефона должен быть в формате от 10 до 15 цифр, может начинаться с '+'.")
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true, length = 15)
     private String number;
 
@@ -44,7 +58,8 @@ public class AppUser {
     @Column(nullable = false)
     private String password;
 
-    @Pattern(regexp = "^https://vk\\.com/[a-zA-Z0-9_.]{3,}$", message = "VK ID должен быть в формате: https://vk.com/имя_пользователя.")
+    @Pattern(regexp = VK_ID_PATTERN, message = "VK ID должен быть в формате: https://vk.com/имя_пользователя.")
+    @Size(max = 100, message = "VK ID не должен превышать 100 символов.")
     @Column(unique = true, length = 100)
     private String vkId;
 
@@ -52,6 +67,7 @@ public class AppUser {
     private Gender gender;
 
     @Email(message = "Email должен быть в корректном формате.")
+    @Size(max = 255, message = "Email не должен превышать 255 символов.")
     @Column(unique = true)
     private String email;
 
@@ -68,6 +84,26 @@ public class AppUser {
     @JsonIgnore
     private String refreshToken;
 
+    @JsonIgnore
+    private String refreshTokenFamily;
+
+    @JsonIgnore
+    private LocalDateTime refreshTokenExpiresAt;
+
+    @JsonIgnore
+    @Column(nullable = false, columnDefinition = "integer not null default 0")
+    private int tokenVersion = 0;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime registeredAt;
+
+    @PrePersist
+    protected void onRegister() {
+        if (this.registeredAt == null) {
+            this.registeredAt = LocalDateTime.now();
+        }
+    }
+
     public void activate() {
         this.enabled = true;
         this.locked = false;
@@ -87,6 +123,10 @@ public class AppUser {
         this.locked = false;
     }
 
+    public int bumpTokenVersion() {
+        return ++this.tokenVersion;
+    }
+
     public boolean isActive() {
         return enabled && !locked;
     }
@@ -134,6 +174,10 @@ public class AppUser {
     }
 
     public String getFrontendStatus() {
+        return frontendStatus(enabled, locked);
+    }
+
+    public static String frontendStatus(boolean enabled, boolean locked) {
         if (locked) {
             return "Заблокирован";
         } else if (enabled) {
@@ -172,7 +216,8 @@ public class AppUser {
                 number,
                 email,
                 getFrontendStatus(),
-                role.name()
+                role.name(),
+                registeredAt
         );
     }
 
@@ -0,0 +1,47 @@
+package com.example.api_backend_atelier.model;
+
+import com.example.api_backend_atelier.dto.ProductSummary;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+
+public enum ProductSort {
+    NEWEST("createdAt", Sort.Direction.DESC),
+    OLDEST("createdAt", Sort.Direction.ASC),
+    PRICE_ASC("price", Sort.Direction.ASC),
+    PRICE_DESC("price", Sort.Direction.DESC);
+
+    private final String attribute;
+    private final Sort.Direction direction;
+
+    ProductSort(String attribute, Sort.Direction direction) {
+        this.attribute = attribute;
+        this.direction = direction;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public boolean isAscending() {
+        return direction.isAscending();
+    }
+
+    public Sort toSort() {
+        return Sort.by(direction, attribute).and(Sort.by(direction, "id"));
+    }
+
+    public Comparable<?> keyOf(ProductSummary product) {
+        return switch (this) {
+            case NEWEST, OLDEST -> product.createdAt();
+            case PRICE_ASC, PRICE_DESC -> product.price();
+        };
+    }
+
+    public Comparable<?> parseKey(String value) {
+        return switch (this) {
+            case NEWEST, OLDEST -> LocalDateTime.parse(value);
+            case PRICE_ASC, PRICE_DESC -> Double.valueOf(value);
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.api_backend_atelier.model;
+
+import lombok.Getter;
+
+@Getter
+public enum UserAction {
+    REGISTERED("Регистрация"),
+    LOGIN("Вход в систему"),
+    PASSWORD_CHANGED("Смена пароля"),
+    PROFILE_UPDATED("Изменение данных профиля"),
+    BLOCKED("Блокировка"),
+    UNBLOCKED("Разблокировка"),
+    ROLE_CHANGED("Изменение роли"),
+    SESSIONS_REVOKED("Отзыв всех сессий");
+
+    private final String displayName;
+
+    UserAction(String displayName) {
+        this.displayName = displayName;
+    }
+}
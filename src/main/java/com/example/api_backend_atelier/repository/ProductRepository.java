@@ -1,15 +1,37 @@
 package com.example.api_backend_atelier.repository;
 
+import com.example.api_backend_atelier.dto.ProductSummary;
 import com.example.api_backend_atelier.model.Gender;
 import com.example.api_backend_atelier.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductRepositoryCustom {
+
+    interface FullTextMatch {
+        Long getId();
+
+        Float getRank();
+
+        String getSnippet();
+    }
+
+    String SUMMARY_SELECT = "select new com.example.api_backend_atelier.dto.ProductSummary(" +
+            "p.id, p.price, p.url, p.category, p.gender, p.createdAt) from Product p ";
 
     List<Product> findByCategory(String category);
 
@@ -18,4 +40,65 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByPriceBetween(Double minPrice, Double maxPrice);
 
     List<Product> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+    @Query(SUMMARY_SELECT +
+            "where p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id) " +
+            "order by p.createdAt desc, p.id desc")
+    List<ProductSummary> findPage(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "where p.category = :category " +
+            "and (p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id)) " +
+            "order by p.createdAt desc, p.id desc")
+    List<ProductSummary> findPageByCategory(@Param("category") String category,
+                                     @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "where p.gender = :gender " +
+            "and (p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id)) " +
+            "order by p.createdAt desc, p.id desc")
+    List<ProductSummary> findPageByGender(@Param("gender") Gender gender,
+                                   @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "where p.price between :minPrice and :maxPrice " +
+            "and (p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id)) " +
+            "order by p.createdAt desc, p.id desc")
+    List<ProductSummary> findPageByPriceBetween(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice,
+                                         @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "where p.createdAt between :startDate and :endDate " +
+            "and (p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id)) " +
+            "order by p.createdAt desc, p.id desc")
+    List<ProductSummary> findPageByCreatedAtBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate,
+                                             @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("select p from Product p order by p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    Stream<Product> streamAllForExport();
+
+    @Query("select p.url from Product p where p.url in :urls")
+    List<String> findExistingUrls(@Param("urls") Collection<String> urls);
+
+    @Query(SUMMARY_SELECT + "where p.id in :ids")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    String HIGHLIGHT_START = "\u0002";
+    String HIGHLIGHT_STOP = "\u0003";
+
+    @Query(value = "select m.id as id, m.rank as rank, " +
+            "ts_headline('russian', coalesce(m.description, ''), m.query, " +
+            "'StartSel=" + HIGHLIGHT_START + ", StopSel=" + HIGHLIGHT_STOP + ", MaxWords=30, MinWords=10, MaxFragments=2') as snippet " +
+            "from (select r.id, r.description, r.rank, r.query " +
+            "      from (select p.id, p.description, ts_rank(p.search_vector, q.query) as rank, q.query " +
+            "            from products p, websearch_to_tsquery('russian', :text) as q(query) " +
+            "            where p.search_vector @@ q.query) r " +
+            "      where r.rank < :rank or (r.rank = :rank and r.id < :id) " +
+            "      order by r.rank desc, r.id desc " +
+            "      limit :limit) m " +
+            "order by m.rank desc, m.id desc",
+            nativeQuery = true)
+    List<FullTextMatch> searchFullText(@Param("text") String text, @Param("rank") float rank,
+                                       @Param("id") long id, @Param("limit") int limit);
 }
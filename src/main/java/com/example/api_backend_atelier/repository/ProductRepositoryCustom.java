@@ -0,0 +1,18 @@
+package com.example.api_backend_atelier.repository;
+
+import com.example.api_backend_atelier.dto.ProductBulkRequest;
+import com.example.api_backend_atelier.dto.ProductSummary;
+import com.example.api_backend_atelier.model.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    List<ProductSummary> findSummaries(Specification<Product> specification, Sort sort, int limit);
+
+    @Transactional
+    int bulkApply(ProductBulkRequest request, int idChunkSize);
+}
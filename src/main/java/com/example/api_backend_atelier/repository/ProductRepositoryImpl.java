@@ -0,0 +1,84 @@
+package com.example.api_backend_atelier.repository;
+
+import com.example.api_backend_atelier.dto.ProductBulkRequest;
+import com.example.api_backend_atelier.dto.ProductSummary;
+import com.example.api_backend_atelier.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductSummary> findSummaries(Specification<Product> specification, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummary> query = cb.createQuery(ProductSummary.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.construct(ProductSummary.class,
+                root.get("id"), root.get("price"), root.get("url"),
+                root.get("category"), root.get("gender"), root.get("createdAt")));
+        query.where(specification.toPredicate(root, query, cb));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public int bulkApply(ProductBulkRequest request, int idChunkSize) {
+        if (request.getIds() == null || request.getIds().isEmpty()) {
+            return execute(request, null);
+        }
+        List<Long> ids = request.getIds().stream().distinct().toList();
+        int affected = 0;
+        for (int from = 0; from < ids.size(); from += idChunkSize) {
+            affected += execute(request, ids.subList(from, Math.min(from + idChunkSize, ids.size())));
+        }
+        return affected;
+    }
+
+    private int execute(ProductBulkRequest request, List<Long> ids) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        if (request.getOperation() == ProductBulkRequest.Operation.DELETE) {
+            CriteriaDelete<Product> delete = cb.createCriteriaDelete(Product.class);
+            Root<Product> root = delete.from(Product.class);
+            delete.where(filter(cb, root, request, ids));
+            return entityManager.createQuery(delete).executeUpdate();
+        }
+
+        CriteriaUpdate<Product> update = cb.createCriteriaUpdate(Product.class);
+        Root<Product> root = update.from(Product.class);
+        switch (request.getOperation()) {
+            case SET_PRICE -> update.set(root.<Double>get("price"), request.getPrice());
+            case SCALE_PRICE -> update.set(root.<Double>get("price"),
+                    cb.round(cb.prod(root.<Double>get("price"), 1 + request.getPercent() / 100), 2));
+            case SET_CATEGORY -> update.set(root.<String>get("category"), request.getNewCategory());
+            default -> throw new IllegalArgumentException("Неподдерживаемая операция: " + request.getOperation());
+        }
+        update.set(root.<LocalDateTime>get("updatedAt"), LocalDateTime.now());
+        update.where(filter(cb, root, request, ids));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    private static Predicate[] filter(CriteriaBuilder cb, Root<Product> root, ProductBulkRequest request, List<Long> ids) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (request.getCategory() != null && !request.getCategory().isBlank()) {
+            predicates.add(cb.equal(root.get("category"), request.getCategory()));
+        }
+        if (request.getGender() != null) {
+            predicates.add(cb.equal(root.get("gender"), request.getGender()));
+        }
+        if (ids != null) {
+            predicates.add(root.get("id").in(ids));
+        }
+        return predicates.toArray(Predicate[]::new);
+    }
+}
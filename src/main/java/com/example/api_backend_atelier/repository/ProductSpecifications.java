@@ -0,0 +1,57 @@
+package com.example.api_backend_atelier.repository;
+
+import com.example.api_backend_atelier.dto.ProductSearchCriteria;
+import com.example.api_backend_atelier.dto.ProductSearchCursor;
+import com.example.api_backend_atelier.model.Product;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> matching(ProductSearchCriteria criteria, ProductSearchCursor cursor) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.category() != null) {
+                predicates.add(cb.equal(root.get("category"), criteria.category()));
+            }
+            if (criteria.gender() != null) {
+                predicates.add(cb.equal(root.get("gender"), criteria.gender()));
+            }
+            if (criteria.minPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), criteria.minPrice()));
+            }
+            if (criteria.maxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), criteria.maxPrice()));
+            }
+            if (criteria.createdFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), criteria.createdFrom()));
+            }
+            if (criteria.createdTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), criteria.createdTo()));
+            }
+            if (cursor != null) {
+                predicates.add(after(cb, root.get(cursor.sort().getAttribute()), root.get("id"), cursor));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate after(CriteriaBuilder cb, Expression key, Expression<Long> id, ProductSearchCursor cursor) {
+        Comparable value = cursor.key();
+        if (cursor.sort().isAscending()) {
+            return cb.or(cb.greaterThan(key, value),
+                    cb.and(cb.equal(key, value), cb.greaterThan(id, cursor.id())));
+        }
+        return cb.or(cb.lessThan(key, value),
+                cb.and(cb.equal(key, value), cb.lessThan(id, cursor.id())));
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.api_backend_atelier.repository;
+
+import com.example.api_backend_atelier.dto.UserHistoryDto;
+import com.example.api_backend_atelier.model.UserHistory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UserHistoryRepository extends JpaRepository<UserHistory, UUID> {
+
+    @Query("select new com.example.api_backend_atelier.dto.UserHistoryDto(h.id, h.action, h.timestamp, h.details) " +
+            "from UserHistory h " +
+            "where h.user.id = :userId and h.timestamp >= :from and h.timestamp <= :timestamp " +
+            "and (h.timestamp < :timestamp or h.id < :id) " +
+            "order by h.timestamp desc, h.id desc")
+    List<UserHistoryDto> findPage(@Param("userId") UUID userId, @Param("from") LocalDateTime from,
+                                  @Param("timestamp") LocalDateTime timestamp, @Param("id") UUID id, Pageable pageable);
+}
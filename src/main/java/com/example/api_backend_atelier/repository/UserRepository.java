@@ -1,16 +1,73 @@
 package com.example.api_backend_atelier.repository;
 
+import com.example.api_backend_atelier.dto.UserDto;
 import com.example.api_backend_atelier.model.AppUser;
+import com.example.api_backend_atelier.model.Role;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface UserRepository extends JpaRepository<AppUser, UUID> {
+public interface UserRepository extends JpaRepository<AppUser, UUID>, UserRepositoryCustom {
+
+    interface UserState {
+        UUID getId();
+
+        String getNumber();
+
+        Boolean getLocked();
+
+        Role getRole();
+    }
 
     Optional<AppUser> findById(UUID id);
-    Optional<AppUser> findByNumber(String number);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from AppUser u where u.id = :id")
+    Optional<AppUser> findByIdForUpdate(@Param("id") UUID id);
+
+    @Query("select u.id as id, u.number as number, u.locked as locked, u.role as role " +
+            "from AppUser u where u.number in :numbers")
+    List<UserState> findStatesByNumberIn(@Param("numbers") Collection<String> numbers);
+
+    @Query("select u.id as id, u.number as number, u.locked as locked, u.role as role " +
+            "from AppUser u where u.id in :ids")
+    List<UserState> findStatesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("select new com.example.api_backend_atelier.dto.UserDto(" +
+            "u.id, u.name, u.lastName, u.number, u.email, u.enabled, u.locked, u.role, u.registeredAt) " +
+            "from AppUser u where u.number in :numbers")
+    List<UserDto> findDtosByNumberIn(@Param("numbers") Collection<String> numbers);
+
+    @Modifying
+    @Query("update AppUser u set u.locked = :locked, u.tokenVersion = u.tokenVersion + 1 " +
+            "where u.number in :numbers and u.locked <> :locked")
+    int updateLockedByNumberIn(@Param("numbers") Collection<String> numbers, @Param("locked") boolean locked);
+
+    @Modifying
+    @Query("update AppUser u set u.role = :role, u.tokenVersion = u.tokenVersion + 1 " +
+            "where u.id in :ids and u.role <> :role")
+    int updateRoleByIdIn(@Param("ids") Collection<UUID> ids, @Param("role") Role role);
+
+    @Query("select u.number from AppUser u where u.number in :numbers")
+    List<String> findExistingNumbers(@Param("numbers") Collection<String> numbers);
+
+    @Query("select u.email from AppUser u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("select u.vkId from AppUser u where u.vkId in :vkIds")
+    List<String> findExistingVkIds(@Param("vkIds") Collection<String> vkIds);
+
+    @Query("select u.tokenVersion from AppUser u where u.number = :number")
+    Optional<Integer> findTokenVersionByNumber(@Param("number") String number);
 
 }
@@ -0,0 +1,18 @@
+package com.example.api_backend_atelier.repository;
+
+import com.example.api_backend_atelier.dto.UserCursor;
+import com.example.api_backend_atelier.dto.UserDto;
+import com.example.api_backend_atelier.dto.UserFilter;
+import com.example.api_backend_atelier.model.AppUser;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    @Transactional(readOnly = true)
+    Optional<AppUser> findByNumber(String number);
+
+    List<UserDto> findUserPage(UserFilter filter, UserCursor cursor, int limit);
+}
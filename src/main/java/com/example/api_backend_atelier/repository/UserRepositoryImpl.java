@@ -0,0 +1,72 @@
+package com.example.api_backend_atelier.repository;
+
+import com.example.api_backend_atelier.dto.UserCursor;
+import com.example.api_backend_atelier.dto.UserDto;
+import com.example.api_backend_atelier.dto.UserFilter;
+import com.example.api_backend_atelier.model.AppUser;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.hibernate.Session;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<AppUser> findByNumber(String number) {
+        if (number == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(AppUser.class)
+                .loadOptional(number);
+    }
+
+    @Override
+    public List<UserDto> findUserPage(UserFilter filter, UserCursor cursor, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserDto> query = cb.createQuery(UserDto.class);
+        Root<AppUser> root = query.from(AppUser.class);
+        query.select(cb.construct(UserDto.class,
+                root.get("id"), root.get("name"), root.get("lastName"), root.get("number"), root.get("email"),
+                root.get("enabled"), root.get("locked"), root.get("role"), root.get("registeredAt")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.role() != null) {
+            predicates.add(cb.equal(root.get("role"), filter.role()));
+        }
+        if (filter.enabled() != null) {
+            predicates.add(cb.equal(root.get("enabled"), filter.enabled()));
+        }
+        if (filter.locked() != null) {
+            predicates.add(cb.equal(root.get("locked"), filter.locked()));
+        }
+        if (filter.gender() != null) {
+            predicates.add(cb.equal(root.get("gender"), filter.gender()));
+        }
+        Path<LocalDateTime> registeredAt = root.get("registeredAt");
+        if (filter.registeredFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(registeredAt, filter.registeredFrom()));
+        }
+        if (filter.registeredTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(registeredAt, filter.registeredTo()));
+        }
+        if (cursor != null) {
+            Path<UUID> id = root.get("id");
+            predicates.add(cb.or(cb.lessThan(registeredAt, cursor.registeredAt()),
+                    cb.and(cb.equal(registeredAt, cursor.registeredAt()), cb.lessThan(id, cursor.id()))));
+        }
+
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(cb.desc(registeredAt), cb.desc(root.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.api_backend_atelier.security;
 
 import com.example.api_backend_atelier.config.CustomUserDetails;
-import com.example.api_backend_atelier.config.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -13,17 +15,24 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     private final JwtTokenProvider tokenProvider;
 
-    private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+
+    private final TokenDenylist tokenDenylist;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, TokenVersionRegistry tokenVersionRegistry,
+                                   TokenDenylist tokenDenylist) {
         this.tokenProvider = tokenProvider;
-        this.userDetailsService = userDetailsService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.tokenDenylist = tokenDenylist;
     }
 
 
@@ -31,24 +40,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         String token = getJwtFromRequest(request);
+        Optional<Claims> claims = StringUtils.hasText(token) ? tokenProvider.getVerifiedClaims(token) : Optional.empty();
 
-        if (StringUtils.hasText(token) && tokenProvider.validateToken(token)) {
-            String phoneNumber = tokenProvider.getPhoneNumberFromToken(token);
-
-            CustomUserDetails userDetails = (CustomUserDetails) userDetailsService.loadUserByUsername(phoneNumber);
+        if (claims.isPresent() && !tokenDenylist.isRevoked(claims.get().getId()) && isCurrentVersion(claims.get())) {
+            try {
+                CustomUserDetails userDetails = tokenProvider.getUserDetails(claims.get());
 
-            if (userDetails != null) {
-                JwtAuthenticationToken authentication =
-                        new JwtAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                if (userDetails.isEnabled() && userDetails.isAccountNonLocked()) {
+                    JwtAuthenticationToken authentication =
+                            new JwtAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
+            } catch (IllegalArgumentException e) {
+                log.warn("Токен пользователя {} содержит некорректные данные: {}", claims.get().getSubject(), e.getMessage());
             }
         }
 
         filterChain.doFilter(request, response);
     }
 
+    private boolean isCurrentVersion(Claims claims) {
+        return tokenProvider.getTokenVersion(claims)
+                .map(version -> tokenVersionRegistry.isCurrent(claims.getSubject(), version))
+                .orElse(false);
+    }
+
     public static String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -1,45 +1,195 @@
 package com.example.api_backend_atelier.security;
 
+import com.example.api_backend_atelier.config.CustomUserDetails;
+import com.example.api_backend_atelier.model.AppUser;
+import com.example.api_backend_atelier.model.Role;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.security.SecurityException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Key;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
-@SuppressWarnings("deprecation")
 @Component
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
+
+    public static final String ENABLED_CLAIM = "enabled";
+    public static final String LOCKED_CLAIM = "locked";
+    public static final String VERSION_CLAIM = "ver";
 
     @Value("${jwt.expiration}")
     private long jwtExpirationMs;
 
-    public String generateToken(String phoneNumber) {
+    @Value("${jwt.refreshExpiration}")
+    private long refreshExpirationMs;
+
+    @Value("${jwt.userClaim}")
+    private String roleClaim;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    private final JwtKeyStore keyStore;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedTokens;
+
+    public JwtTokenProvider(JwtKeyStore keyStore) {
+        this.keyStore = keyStore;
+    }
+
+    @PostConstruct
+    void init() {
+        parser = Jwts.parserBuilder().setSigningKeyResolver(new KeyIdResolver()).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+    }
+
+    public String generateToken(AppUser user) {
+        JwtKeyStore.SigningKey signingKey = keyStore.getActiveKey();
         return Jwts.builder()
-                .setSubject(phoneNumber)
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getNumber())
+                .claim(roleClaim, user.getRole().name())
+                .claim(ENABLED_CLAIM, user.isEnabled())
+                .claim(LOCKED_CLAIM, user.isLocked())
+                .claim(VERSION_CLAIM, user.getTokenVersion())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .signWith(signingKey.privateKey(), SignatureAlgorithm.RS256)
                 .compact();
     }
 
+    public Optional<Claims> getVerifiedClaims(String token) {
+        Claims cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            verifiedTokens.put(token, claims);
+            return Optional.of(claims);
+        } catch (SecurityException | MalformedJwtException | ExpiredJwtException | UnsupportedJwtException | IllegalArgumentException ex) {
+            log.debug("Токен отклонен: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
     public String getPhoneNumberFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return getVerifiedClaims(token)
+                .map(Claims::getSubject)
+                .orElseThrow(() -> new JwtException("Недействительный токен"));
     }
 
     public boolean validateToken(String token) {
+        return getVerifiedClaims(token).isPresent();
+    }
+
+    public Optional<Integer> getTokenVersion(Claims claims) {
+        Object version = claims.get(VERSION_CLAIM);
+        return version instanceof Number number ? Optional.of(number.intValue()) : Optional.empty();
+    }
+
+    public CustomUserDetails getUserDetails(Claims claims) {
+        AppUser user = new AppUser();
+        user.setNumber(claims.getSubject());
+        user.setRole(Role.findByName(claims.get(roleClaim, String.class)));
+        user.setEnabled(Boolean.TRUE.equals(claims.get(ENABLED_CLAIM, Boolean.class)));
+        user.setLocked(!Boolean.FALSE.equals(claims.get(LOCKED_CLAIM, Boolean.class)));
+        getTokenVersion(claims).ifPresent(user::setTokenVersion);
+        return new CustomUserDetails(user);
+    }
+
+    public String generateRefreshTokenFamily() {
+        return randomToken(16);
+    }
+
+    public String generateRefreshToken(AppUser user, String family) {
+        return user.getId() + "." + family + "." + randomToken(32);
+    }
+
+    private String randomToken(int length) {
+        byte[] secret = new byte[length];
+        secureRandom.nextBytes(secret);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+    }
+
+    public LocalDateTime getRefreshTokenExpiry() {
+        return LocalDateTime.now().plus(refreshExpirationMs, ChronoUnit.MILLIS);
+    }
+
+    public String hashRefreshToken(String refreshToken) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token);
-            return true;
-        } catch (SignatureException | MalformedJwtException | ExpiredJwtException | UnsupportedJwtException | IllegalArgumentException ex) {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    public boolean matchesRefreshToken(String refreshToken, String storedHash) {
+        if (storedHash == null) {
             return false;
         }
+        return MessageDigest.isEqual(
+                hashRefreshToken(refreshToken).getBytes(StandardCharsets.UTF_8),
+                storedHash.getBytes(StandardCharsets.UTF_8));
     }
-}
 
+    private final class KeyIdResolver extends SigningKeyResolverAdapter {
+
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            if (!SignatureAlgorithm.RS256.getValue().equals(header.getAlgorithm())) {
+                throw new UnsupportedJwtException("Неподдерживаемый алгоритм подписи: " + header.getAlgorithm());
+            }
+            return keyStore.findPublicKey(header.getKeyId())
+                    .orElseThrow(() -> new SecurityException("Неизвестный ключ подписи: " + header.getKeyId()));
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(@NonNull String token, @NonNull Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(@NonNull String token, @NonNull Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(@NonNull String token, @NonNull Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
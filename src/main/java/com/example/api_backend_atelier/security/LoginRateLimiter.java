@@ -0,0 +1,97 @@
+package com.example.api_backend_atelier.security;
+
+import com.example.api_backend_atelier.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+public class LoginRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginRateLimiter.class);
+
+    private final Cache<String, TokenBucket> buckets;
+    private final BucketLimits accountLimits;
+    private final BucketLimits ipLimits;
+    private final Counter accountThrottled;
+    private final Counter ipThrottled;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${security.rate-limit.account.capacity:5}") int accountCapacity,
+                            @Value("${security.rate-limit.account.refill-per-minute:5}") double accountRefillPerMinute,
+                            @Value("${security.rate-limit.ip.capacity:20}") int ipCapacity,
+                            @Value("${security.rate-limit.ip.refill-per-minute:20}") double ipRefillPerMinute,
+                            @Value("${security.rate-limit.max-tracked-keys:100000}") long maxTrackedKeys) {
+        this.accountLimits = new BucketLimits(accountCapacity, accountRefillPerMinute / 60_000_000_000d);
+        this.ipLimits = new BucketLimits(ipCapacity, ipRefillPerMinute / 60_000_000_000d);
+        Duration idle = Duration.ofNanos((long) Math.ceil(Math.max(
+                accountLimits.capacity() / accountLimits.tokensPerNano(),
+                ipLimits.capacity() / ipLimits.tokensPerNano())));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(idle)
+                .build();
+        this.accountThrottled = Counter.builder("auth.throttled").tag("scope", "account").register(meterRegistry);
+        this.ipThrottled = Counter.builder("auth.throttled").tag("scope", "ip").register(meterRegistry);
+    }
+
+    public void check(String phoneNumber, String clientIp) {
+        if (clientIp != null) {
+            acquire("ip:" + clientIp, ipLimits, ipThrottled);
+        }
+        if (phoneNumber != null) {
+            acquire("number:" + phoneNumber, accountLimits, accountThrottled);
+        }
+    }
+
+    private void acquire(String key, BucketLimits limits, Counter throttled) {
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(limits));
+        long waitNanos = bucket.tryConsume();
+        if (waitNanos > 0) {
+            throttled.increment();
+            long retryAfterSeconds = Math.max(1, Duration.ofNanos(waitNanos).toSeconds() + 1);
+            log.debug("Превышен лимит попыток входа для {}, повтор через {} с", key, retryAfterSeconds);
+            throw new TooManyRequestsException("Слишком много попыток, повторите позже.", retryAfterSeconds);
+        }
+    }
+
+    private record BucketLimits(double capacity, double tokensPerNano) {
+    }
+
+    private record BucketState(double tokens, long refilledAt) {
+    }
+
+    private static final class TokenBucket {
+
+        private final BucketLimits limits;
+        private final AtomicReference<BucketState> state;
+
+        TokenBucket(BucketLimits limits) {
+            this.limits = limits;
+            this.state = new AtomicReference<>(new BucketState(limits.capacity(), System.nanoTime()));
+        }
+
+        long tryConsume() {
+            while (true) {
+                BucketState current = state.get();
+                long now = System.nanoTime();
+                double available = Math.min(limits.capacity(),
+                        current.tokens() + (now - current.refilledAt()) * limits.tokensPerNano());
+                if (available < 1) {
+                    return (long) Math.ceil((1 - available) / limits.tokensPerNano());
+                }
+                if (state.compareAndSet(current, new BucketState(available - 1, now))) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
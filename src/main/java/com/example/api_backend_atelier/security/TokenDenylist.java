@@ -0,0 +1,78 @@
+package com.example.api_backend_atelier.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class TokenDenylist {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenDenylist.class);
+
+    private final Cache<String, Long> revokedTokens;
+    private final long expectedSize;
+    private final double falsePositiveRate;
+    private volatile BloomFilter bloomFilter;
+
+    public TokenDenylist(@Value("${jwt.denylist.expected-size:100000}") long expectedSize,
+                         @Value("${jwt.denylist.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.expectedSize = expectedSize;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = new BloomFilter(expectedSize, falsePositiveRate);
+        this.revokedTokens = Caffeine.newBuilder()
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+    }
+
+    public synchronized void revoke(String tokenId, Date expiration) {
+        if (tokenId == null || expiration == null || expiration.before(new Date())) {
+            return;
+        }
+        revokedTokens.put(tokenId, expiration.getTime());
+        bloomFilter.put(tokenId);
+        log.debug("Токен {} отозван до {}", tokenId, expiration);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return true;
+        }
+        return bloomFilter.mightContain(tokenId) && revokedTokens.getIfPresent(tokenId) != null;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.denylist.bloom-rebuild-interval:PT10M}")
+    public synchronized void rebuildBloomFilter() {
+        revokedTokens.cleanUp();
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedSize, revokedTokens.estimatedSize()), falsePositiveRate);
+        revokedTokens.asMap().keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+        log.debug("Фильтр Блума списка отозванных токенов перестроен, записей: {}", revokedTokens.estimatedSize());
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, Long> {
+
+        @Override
+        public long expireAfterCreate(@NonNull String tokenId, @NonNull Long expiresAt, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiresAt - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(@NonNull String tokenId, @NonNull Long expiresAt, long currentTime, long currentDuration) {
+            return expireAfterCreate(tokenId, expiresAt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(@NonNull String tokenId, @NonNull Long expiresAt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.api_backend_atelier.security;
+
+import com.example.api_backend_atelier.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+
+@Component
+public class TokenVersionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenVersionRegistry.class);
+
+    private final UserRepository userRepository;
+    private final Cache<String, Integer> versions;
+
+    public TokenVersionRegistry(UserRepository userRepository,
+                                @Value("${jwt.version-table.max-size:500000}") long maxSize,
+                                @Value("${jwt.version-table.ttl:30s}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public boolean isCurrent(String number, int version) {
+        Integer current = versions.get(number, key -> userRepository.findTokenVersionByNumber(key).orElse(null));
+        return current != null && current == version;
+    }
+
+    public void publish(String number, int version) {
+        versions.put(number, version);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        versions.invalidate(number);
+                    }
+                }
+            });
+        }
+        log.debug("Версия токенов пользователя {} обновлена до {}", number, version);
+    }
+
+    public void forgetAll(Collection<String> numbers) {
+        versions.invalidateAll(numbers);
+    }
+
+    public void forget(String number) {
+        if (number == null) {
+            return;
+        }
+        versions.invalidate(number);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.invalidate(number);
+                }
+            });
+        }
+    }
+}
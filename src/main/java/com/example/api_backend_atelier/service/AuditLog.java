@@ -0,0 +1,261 @@
+package com.example.api_backend_atelier.service;
+
+import com.example.api_backend_atelier.model.UserAction;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+@Component
+public class AuditLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+    private static final int MAX_DETAILS_LENGTH = 255;
+
+    private static final String INSERT_SQL =
+            "insert into user_history (id, user_id, action, timestamp, details) " +
+            "select ?, ?, ?, ?, ? where exists (select 1 from app_user where id = ?) " +
+            "on conflict (id, timestamp) do nothing";
+
+    public record AuditEvent(UUID id, UUID userId, String action, LocalDateTime timestamp, String details) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<AuditEvent> buffer;
+    private final int batchSize;
+    private final Path spillFile;
+    private final Path replayFile;
+    private final Object spillLock = new Object();
+    private final Counter written;
+    private final Counter skipped;
+    private final Counter spilled;
+    private final Counter dropped;
+
+    public AuditLog(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                    @Value("${audit.buffer-capacity:10000}") int bufferCapacity,
+                    @Value("${audit.batch-size:200}") int batchSize,
+                    @Value("${audit.spill-file:logs/audit-spill.ndjson}") Path spillFile) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.spillFile = spillFile;
+        this.replayFile = spillFile.resolveSibling(spillFile.getFileName() + ".replay");
+
+        Gauge.builder("audit.buffer.depth", buffer, BlockingQueue::size).register(meterRegistry);
+        this.written = Counter.builder("audit.events").tag("result", "written").register(meterRegistry);
+        this.skipped = Counter.builder("audit.events").tag("result", "skipped").register(meterRegistry);
+        this.spilled = Counter.builder("audit.events").tag("result", "spilled").register(meterRegistry);
+        this.dropped = Counter.builder("audit.events").tag("result", "dropped").register(meterRegistry);
+    }
+
+    public void record(UUID userId, UserAction action, String details) {
+        if (userId == null) {
+            return;
+        }
+        AuditEvent event = new AuditEvent(UUID.randomUUID(), userId, action.name(), LocalDateTime.now(), truncate(details));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(List.of(event));
+                }
+            });
+        } else {
+            enqueue(List.of(event));
+        }
+    }
+
+    public void recordAll(List<UUID> userIds, UserAction action, String details) {
+        LocalDateTime now = LocalDateTime.now();
+        String truncated = truncate(details);
+        enqueue(userIds.stream()
+                .map(userId -> new AuditEvent(UUID.randomUUID(), userId, action.name(), now, truncated))
+                .toList());
+    }
+
+    private void enqueue(List<AuditEvent> events) {
+        List<AuditEvent> overflow = null;
+        for (AuditEvent event : events) {
+            if (!buffer.offer(event)) {
+                if (overflow == null) {
+                    overflow = new ArrayList<>();
+                }
+                overflow.add(event);
+            }
+        }
+        if (overflow != null) {
+            spill(overflow);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${audit.flush-interval:PT1S}")
+    public void flush() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                write(batch);
+            } catch (DataAccessException e) {
+                log.error("Не удалось записать {} событий аудита, события сохранены в {}: {}",
+                        batch.size(), spillFile, e.getMessage());
+                spill(batch);
+                return;
+            }
+            batch.clear();
+        }
+        replaySpilled();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        List<AuditEvent> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            List<AuditEvent> batch = remaining.subList(from, Math.min(from + batchSize, remaining.size()));
+            try {
+                write(batch);
+            } catch (DataAccessException e) {
+                spill(remaining.subList(from, remaining.size()));
+                return;
+            }
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        int[][] results = jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, event) -> {
+            statement.setObject(1, event.id());
+            statement.setObject(2, event.userId());
+            statement.setString(3, event.action());
+            statement.setTimestamp(4, Timestamp.valueOf(event.timestamp()));
+            statement.setString(5, event.details());
+            statement.setObject(6, event.userId());
+        });
+        int inserted = 0;
+        for (int[] chunk : results) {
+            for (int count : chunk) {
+                inserted += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
+        }
+        written.increment(inserted);
+        if (inserted < batch.size()) {
+            skipped.increment(batch.size() - inserted);
+            log.debug("Пропущено {} событий аудита удаленных пользователей", batch.size() - inserted);
+        }
+    }
+
+    private void spill(List<AuditEvent> events) {
+        synchronized (spillLock) {
+            try {
+                Files.createDirectories(spillFile.toAbsolutePath().getParent());
+                try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (AuditEvent event : events) {
+                        writer.write(objectMapper.writeValueAsString(event));
+                        writer.newLine();
+                    }
+                }
+                spilled.increment(events.size());
+            } catch (IOException e) {
+                dropped.increment(events.size());
+                log.error("Не удалось сохранить {} событий аудита в {}, события потеряны: {}",
+                        events.size(), spillFile, e.getMessage());
+            }
+        }
+    }
+
+    private void replaySpilled() {
+        synchronized (spillLock) {
+            try {
+                if (!Files.exists(replayFile)) {
+                    if (!Files.exists(spillFile)) {
+                        return;
+                    }
+                    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) {
+                log.warn("Не удалось подготовить к повторной записи файл аудита {}: {}", spillFile, e.getMessage());
+                return;
+            }
+        }
+
+        int replayed = 0;
+        int malformed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+            List<AuditEvent> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                AuditEvent event;
+                try {
+                    event = objectMapper.readValue(line, AuditEvent.class);
+                } catch (JsonProcessingException e) {
+                    malformed++;
+                    dropped.increment();
+                    log.warn("Пропущена поврежденная запись аудита в {}: {}", replayFile, e.getOriginalMessage());
+                    continue;
+                }
+                batch.add(event);
+                if (batch.size() == batchSize) {
+                    write(batch);
+                    replayed += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                replayed += batch.size();
+            }
+        } catch (IOException | DataAccessException e) {
+            log.warn("Повторная запись событий аудита из {} прервана, повтор при следующей выгрузке: {}",
+                    replayFile, e.getMessage());
+            return;
+        }
+
+        try {
+            Files.delete(replayFile);
+            log.info("Из файла {} повторно записано {} событий аудита, пропущено поврежденных: {}",
+                    replayFile, replayed, malformed);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить файл аудита {}: {}", replayFile, e.getMessage());
+        }
+    }
+
+    private static String truncate(String details) {
+        if (details == null || details.length() <= MAX_DETAILS_LENGTH) {
+            return details;
+        }
+        return details.substring(0, MAX_DETAILS_LENGTH);
+    }
+}
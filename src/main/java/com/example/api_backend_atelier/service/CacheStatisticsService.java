@@ -0,0 +1,48 @@
+package com.example.api_backend_atelier.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class CacheStatisticsService {
+
+    private final Statistics statistics;
+    private final ProductQueryCache productQueryCache;
+
+    public CacheStatisticsService(EntityManagerFactory entityManagerFactory, ProductQueryCache productQueryCache) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.productQueryCache = productQueryCache;
+    }
+
+    public Map<String, Map<String, Object>> getSecondLevelCacheStatistics() {
+        Map<String, Map<String, Object>> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            regions.put(regionName, describe(region.getHitCount(), region.getMissCount(), region.getPutCount(),
+                    region.getElementCountInMemory()));
+        }
+        regions.put("productQueries", productQueryCache.getStatistics());
+        return regions;
+    }
+
+    public Map<String, Map<String, Object>> getProductQueryStatistics() {
+        return productQueryCache.getQueryStatistics();
+    }
+
+    static Map<String, Object> describe(long hits, long misses, long puts, long size) {
+        long lookups = hits + misses;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("puts", puts);
+        stats.put("size", size);
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hits / lookups);
+        return stats;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.api_backend_atelier.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+final class CsvRecordReader {
+
+    private final Reader reader;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    List<String> next() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Незакрытые кавычки в CSV");
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        value.append('"');
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    value.append((char) c);
+                }
+            } else if (c == '"' && value.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                values.add(value.toString());
+                return values;
+            } else {
+                value.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        return reader.read();
+    }
+}
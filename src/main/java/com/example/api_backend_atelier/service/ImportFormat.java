@@ -0,0 +1,14 @@
+package com.example.api_backend_atelier.service;
+
+public enum ImportFormat {
+    JSON,
+    CSV;
+
+    public static ImportFormat detect(String fileName, String contentType) {
+        if ((fileName != null && fileName.toLowerCase().endsWith(".csv"))
+                || (contentType != null && contentType.toLowerCase().startsWith("text/csv"))) {
+            return CSV;
+        }
+        return JSON;
+    }
+}
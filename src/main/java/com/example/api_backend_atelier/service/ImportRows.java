@@ -0,0 +1,86 @@
+package com.example.api_backend_atelier.service;
+
+import com.example.api_backend_atelier.dto.ImportReport;
+import com.example.api_backend_atelier.model.Gender;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+final class ImportRows {
+
+    record CsvRow(List<String> values, Map<String, Integer> columns) {
+
+        String column(String name) {
+            Integer index = columns.get(name);
+            if (index == null || index >= values.size()) {
+                return null;
+            }
+            String value = values.get(index);
+            return value.isBlank() ? null : value;
+        }
+    }
+
+    private ImportRows() {
+    }
+
+    static <T> void readJson(ObjectMapper objectMapper, Reader reader, Class<T> type, ImportReport report,
+                             int maxReportedErrors, Consumer<T> sink) throws IOException {
+        try (MappingIterator<T> rows = objectMapper.readerFor(type).readValues(reader)) {
+            while (true) {
+                T row;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    report.setTotalRows(report.getTotalRows() + 1);
+                    report.invalid(report.getTotalRows(), null, "Некорректный JSON: " + e.getOriginalMessage(), maxReportedErrors);
+                    if (e instanceof JsonParseException) {
+                        break;
+                    }
+                    continue;
+                }
+                sink.accept(row);
+            }
+        }
+    }
+
+    static void readCsv(Reader reader, List<String> requiredColumns, Consumer<CsvRow> sink) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase().replace("_", ""), i);
+        }
+        for (String required : requiredColumns) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("В заголовке CSV отсутствует столбец " + required);
+            }
+        }
+
+        List<String> values;
+        while ((values = csv.next()) != null) {
+            sink.accept(new CsvRow(values, columns));
+        }
+    }
+
+    static Gender parseGender(String value) {
+        try {
+            return Gender.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Gender.findByName(value.trim());
+        }
+    }
+}
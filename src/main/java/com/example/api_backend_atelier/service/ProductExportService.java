@@ -0,0 +1,134 @@
+package com.example.api_backend_atelier.service;
+
+import com.example.api_backend_atelier.model.Product;
+import com.example.api_backend_atelier.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class ProductExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductExportService.class);
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    private static final String[] CSV_HEADER =
+            {"id", "price", "url", "gender", "category", "description", "createdAt", "updatedAt"};
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format fromName(String name) {
+            return Arrays.stream(values())
+                    .filter(format -> format.extension.equalsIgnoreCase(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Неподдерживаемый формат экспорта: " + name));
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductExportService(ProductRepository productRepository, ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void export(Format format, OutputStream output) {
+        long startedAt = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        Long rows = readOnlyTransaction.execute(status -> {
+            try (Stream<Product> products = productRepository.streamAllForExport()) {
+                return writeRows(format, products.iterator(), writer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        log.info("Экспорт каталога в формате {} завершен: {} строк за {} мс",
+                format, rows, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    private long writeRows(Format format, Iterator<Product> products, Writer writer) throws IOException {
+        if (format == Format.CSV) {
+            writeCsvLine(writer, CSV_HEADER);
+        }
+        writer.flush();
+
+        long rows = 0;
+        while (products.hasNext()) {
+            Product product = products.next();
+            if (format == Format.CSV) {
+                writeCsvLine(writer, new String[]{
+                        String.valueOf(product.getId()), String.valueOf(product.getPrice()), product.getUrl(),
+                        String.valueOf(product.getGender()), product.getCategory(), product.getDescription(),
+                        String.valueOf(product.getCreatedAt()), String.valueOf(product.getUpdatedAt())});
+            } else {
+                writer.write(objectMapper.writeValueAsString(product));
+                writer.write('\n');
+            }
+            entityManager.detach(product);
+            if (++rows % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static void writeCsvLine(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
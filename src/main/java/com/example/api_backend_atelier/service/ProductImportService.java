@@ -0,0 +1,211 @@
+package com.example.api_backend_atelier.service;
+
+import com.example.api_backend_atelier.dto.ImportReport;
+import com.example.api_backend_atelier.dto.ProductCreateDto;
+import com.example.api_backend_atelier.model.Product;
+import com.example.api_backend_atelier.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private record Row(long number, Product product) {
+    }
+
+    private final ProductRepository productRepository;
+    private final ProductQueryCache queryCache;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductImportService(ProductRepository productRepository,
+                                ProductQueryCache queryCache,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${products.import.chunk-size:500}") int chunkSize,
+                                @Value("${products.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.productRepository = productRepository;
+        this.queryCache = queryCache;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public ImportReport importProducts(InputStream input, ImportFormat format) {
+        long startedAt = System.nanoTime();
+        ImportReport report = new ImportReport();
+        Set<String> seenUrls = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        try (Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            if (format == ImportFormat.CSV) {
+                readCsv(reader, report, seenUrls, chunk);
+            } else {
+                readJson(reader, report, seenUrls, chunk);
+            }
+            writeChunk(chunk, report);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Импорт каталога прерван на строке {}: {}", report.getTotalRows() + 1, e.getMessage());
+            report.abort(report.getTotalRows() + 1, e.getMessage());
+            writeChunk(chunk, report);
+        } finally {
+            if (report.getImported() > 0) {
+                queryCache.invalidateAll();
+            }
+            report.finish(startedAt);
+            log.info("Импорт каталога: строк {}, добавлено {}, дубликатов {}, ошибок {}, {} мс ({} строк/с)",
+                    report.getTotalRows(), report.getImported(), report.getDuplicates(), report.getInvalid(),
+                    report.getDurationMs(), String.format("%.0f", report.getRowsPerSecond()));
+        }
+        return report;
+    }
+
+    private void readJson(Reader reader, ImportReport report, Set<String> seenUrls, List<Row> chunk) throws IOException {
+        ImportRows.readJson(objectMapper, reader, ProductCreateDto.class, report, maxReportedErrors,
+                dto -> accept(dto, report, seenUrls, chunk));
+    }
+
+    private void readCsv(Reader reader, ImportReport report, Set<String> seenUrls, List<Row> chunk) throws IOException {
+        ImportRows.readCsv(reader, List.of("price", "url", "gender", "category"), row -> {
+            ProductCreateDto dto = new ProductCreateDto();
+            try {
+                String price = row.column("price");
+                dto.setPrice(price == null ? null : Double.valueOf(price));
+                String gender = row.column("gender");
+                dto.setGender(gender == null ? null : ImportRows.parseGender(gender));
+            } catch (IllegalArgumentException e) {
+                report.setTotalRows(report.getTotalRows() + 1);
+                report.invalid(report.getTotalRows(), row.column("url"), e.getMessage(), maxReportedErrors);
+                return;
+            }
+            dto.setUrl(row.column("url"));
+            dto.setCategory(row.column("category"));
+            dto.setDescription(row.column("description"));
+            accept(dto, report, seenUrls, chunk);
+        });
+    }
+
+    private void accept(ProductCreateDto dto, ImportReport report, Set<String> seenUrls, List<Row> chunk) {
+        report.setTotalRows(report.getTotalRows() + 1);
+        long rowNumber = report.getTotalRows();
+
+        String problem = validate(dto);
+        if (problem != null) {
+            report.invalid(rowNumber, dto.getUrl(), problem, maxReportedErrors);
+            return;
+        }
+        if (!seenUrls.add(dto.getUrl())) {
+            report.duplicate(rowNumber, dto.getUrl(), "URL повторяется в файле", maxReportedErrors);
+            return;
+        }
+
+        Product product = new Product();
+        product.setPrice(dto.getPrice());
+        product.setUrl(dto.getUrl());
+        product.setGender(dto.getGender());
+        product.setDescription(dto.getDescription());
+        product.setCategory(dto.getCategory());
+        chunk.add(new Row(rowNumber, product));
+        if (chunk.size() >= chunkSize) {
+            writeChunk(chunk, report);
+        }
+    }
+
+    private void writeChunk(List<Row> chunk, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Set<String> existing = new HashSet<>(productRepository.findExistingUrls(
+                chunk.stream().map(row -> row.product().getUrl()).toList()));
+        List<Row> fresh = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (existing.contains(row.product().getUrl())) {
+                report.duplicate(row.number(), row.product().getUrl(), "Продукт с таким URL уже существует", maxReportedErrors);
+            } else {
+                fresh.add(row);
+            }
+        }
+        chunk.clear();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(fresh));
+            report.setImported(report.getImported() + fresh.size());
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            if (!isConstraintViolation(e)) {
+                throw e;
+            }
+            log.warn("Пакет импорта отклонен базой данных, повтор построчно: {}", NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            for (Row row : fresh) {
+                row.product().setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(row)));
+                    report.setImported(report.getImported() + 1);
+                } catch (DataIntegrityViolationException | PersistenceException rowFailure) {
+                    if (!isConstraintViolation(rowFailure)) {
+                        throw rowFailure;
+                    }
+                    report.duplicate(row.number(), row.product().getUrl(), "Продукт с таким URL уже существует", maxReportedErrors);
+                }
+            }
+        }
+    }
+
+    private void persist(List<Row> rows) {
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        for (Row row : rows) {
+            entityManager.persist(row.product());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static boolean isConstraintViolation(RuntimeException e) {
+        return e instanceof DataIntegrityViolationException
+                || e instanceof ConstraintViolationException
+                || e.getCause() instanceof ConstraintViolationException;
+    }
+
+    private static String validate(ProductCreateDto dto) {
+        if (dto == null) {
+            return "Пустая строка";
+        }
+        if (dto.getPrice() == null || dto.getPrice() <= 0 || dto.getPrice().isNaN() || dto.getPrice().isInfinite()) {
+            return "Цена должна быть положительным числом";
+        }
+        if (dto.getUrl() == null || dto.getUrl().isBlank() || dto.getUrl().length() > 255) {
+            return "URL обязателен и не должен превышать 255 символов";
+        }
+        if (dto.getGender() == null) {
+            return "Пол обязателен";
+        }
+        if (dto.getCategory() == null || dto.getCategory().isBlank() || dto.getCategory().length() > 255) {
+            return "Категория обязательна и не должна превышать 255 символов";
+        }
+        return null;
+    }
+}
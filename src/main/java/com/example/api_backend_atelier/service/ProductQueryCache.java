@@ -0,0 +1,247 @@
+package com.example.api_backend_atelier.service;
+
+import com.example.api_backend_atelier.dto.CursorPage;
+import com.example.api_backend_atelier.dto.ProductSearchCriteria;
+import com.example.api_backend_atelier.dto.ProductSummary;
+import com.example.api_backend_atelier.model.Gender;
+import com.example.api_backend_atelier.model.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+@Component
+public class ProductQueryCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductQueryCache.class);
+
+    public enum Shape { ALL, CATEGORY, GENDER, PRICE, CREATED, SEARCH }
+
+    public record Query(Shape shape, String category, Gender gender, Double minPrice, Double maxPrice,
+                        LocalDateTime start, LocalDateTime end, ProductSearchCriteria search) {
+
+        public static Query all() {
+            return new Query(Shape.ALL, null, null, null, null, null, null, null);
+        }
+
+        public static Query byCategory(String category) {
+            return new Query(Shape.CATEGORY, category, null, null, null, null, null, null);
+        }
+
+        public static Query byGender(Gender gender) {
+            return new Query(Shape.GENDER, null, gender, null, null, null, null, null);
+        }
+
+        public static Query byPrice(Double minPrice, Double maxPrice) {
+            return new Query(Shape.PRICE, null, null, minPrice, maxPrice, null, null, null);
+        }
+
+        public static Query byCreatedAt(LocalDateTime start, LocalDateTime end) {
+            return new Query(Shape.CREATED, null, null, null, null, start, end, null);
+        }
+
+        public static Query search(ProductSearchCriteria criteria) {
+            return new Query(Shape.SEARCH, null, null, null, null, null, null, criteria);
+        }
+
+        boolean covers(Snapshot product) {
+            return switch (shape) {
+                case ALL -> true;
+                case CATEGORY -> Objects.equals(category, product.category());
+                case GENDER -> gender == product.gender();
+                case PRICE -> product.price() == null
+                        || (product.price() >= minPrice && product.price() <= maxPrice);
+                case CREATED -> product.createdAt() == null
+                        || (!product.createdAt().isBefore(start) && !product.createdAt().isAfter(end));
+                case SEARCH -> search.matches(product.category(), product.gender(), product.price(), product.createdAt());
+            };
+        }
+
+        public String label() {
+            return switch (shape) {
+                case ALL -> "all";
+                case CATEGORY -> "category=" + category;
+                case GENDER -> "gender=" + gender;
+                case PRICE -> "price=" + minPrice + ".." + maxPrice;
+                case CREATED -> "createdAt=" + start + ".." + end;
+                case SEARCH -> "search=" + search;
+            };
+        }
+    }
+
+    public record Snapshot(String category, Gender gender, Double price, LocalDateTime createdAt) {
+
+        public static Snapshot of(Product product) {
+            return new Snapshot(product.getCategory(), product.getGender(), product.getPrice(), product.getCreatedAt());
+        }
+    }
+
+    private record PageKey(Query query, String cursor, int size) {
+    }
+
+    private record FlightKey(PageKey page, long generation) {
+    }
+
+    private record CachedPage(CursorPage<ProductSummary> page, long loadedAt) {
+    }
+
+    private static final class QueryStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder puts = new LongAdder();
+    }
+
+    private final Cache<PageKey, CachedPage> pages;
+    private final Cache<Query, QueryStats> queryStats;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder puts = new LongAdder();
+    private final SingleFlight<FlightKey, CursorPage<ProductSummary>> loads;
+    private final Set<PageKey> refreshing = ConcurrentHashMap.newKeySet();
+    private final TaskExecutor refreshExecutor;
+    private final long refreshAfterNanos;
+    private final Counter staleServed;
+    private final Counter refreshed;
+    private final Counter refreshFailed;
+
+    public ProductQueryCache(MeterRegistry meterRegistry,
+                             @Qualifier("applicationTaskExecutor") TaskExecutor refreshExecutor,
+                             @Value("${products.query-cache.max-size:10000}") long maxSize,
+                             @Value("${products.query-cache.refresh-after:5m}") Duration refreshAfter,
+                             @Value("${products.query-cache.max-stale:1h}") Duration maxStale,
+                             @Value("${products.query-cache.tracked-queries:1000}") long trackedQueries,
+                             @Value("${products.query-cache.load-timeout:3s}") Duration loadTimeout,
+                             @Value("${products.query-cache.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(maxStale)
+                .recordStats()
+                .build();
+        this.queryStats = Caffeine.newBuilder()
+                .maximumSize(trackedQueries)
+                .build();
+        this.loads = new SingleFlight<>("productQueries", loadTimeout, retryAfterSeconds, meterRegistry);
+        this.refreshExecutor = refreshExecutor;
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        this.staleServed = Counter.builder("products.query-cache.stale").register(meterRegistry);
+        this.refreshed = Counter.builder("products.query-cache.refresh").tag("result", "success").register(meterRegistry);
+        this.refreshFailed = Counter.builder("products.query-cache.refresh").tag("result", "failure").register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "productQueries");
+    }
+
+    public CursorPage<ProductSummary> get(Query query, String cursor, int size, Supplier<CursorPage<ProductSummary>> loader) {
+        PageKey key = new PageKey(query, cursor, size);
+        QueryStats stats = queryStats.get(query, q -> new QueryStats());
+        CachedPage cached = pages.getIfPresent(key);
+        if (cached != null) {
+            stats.hits.increment();
+            if (System.nanoTime() - cached.loadedAt() > refreshAfterNanos) {
+                staleServed.increment();
+                refreshAsync(key, loader);
+            }
+            return cached.page();
+        }
+        stats.misses.increment();
+
+        long loadedGeneration = generation.get();
+        CursorPage<ProductSummary> page = loads.execute(new FlightKey(key, loadedGeneration), loader);
+        store(key, page, loadedGeneration);
+        return page;
+    }
+
+    private void refreshAsync(PageKey key, Supplier<CursorPage<ProductSummary>> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    long loadedGeneration = generation.get();
+                    store(key, loads.execute(new FlightKey(key, loadedGeneration), loader), loadedGeneration);
+                    refreshed.increment();
+                } catch (RuntimeException e) {
+                    refreshFailed.increment();
+                    log.warn("Не удалось обновить страницу каталога {}, используется последняя успешная копия: {}",
+                            key.query().label(), e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            refreshing.remove(key);
+            log.debug("Пул задач занят, обновление страницы каталога {} отложено.", key.query().label());
+        }
+    }
+
+    private void store(PageKey key, CursorPage<ProductSummary> page, long loadedGeneration) {
+        if (loadedGeneration != generation.get()) {
+            return;
+        }
+        pages.put(key, new CachedPage(page, System.nanoTime()));
+        if (loadedGeneration != generation.get()) {
+            pages.invalidate(key);
+            return;
+        }
+        puts.increment();
+        QueryStats stats = queryStats.getIfPresent(key.query());
+        if (stats != null) {
+            stats.puts.increment();
+        }
+    }
+
+    public void invalidate(Snapshot... products) {
+        generation.incrementAndGet();
+        int removed = 0;
+        Iterator<PageKey> keys = pages.asMap().keySet().iterator();
+        while (keys.hasNext()) {
+            Query query = keys.next().query();
+            if (Arrays.stream(products).anyMatch(query::covers)) {
+                keys.remove();
+                removed++;
+            }
+        }
+        log.debug("Из кэша каталога удалено страниц: {}", removed);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        pages.invalidateAll();
+        log.debug("Кэш каталога полностью очищен.");
+    }
+
+    public Map<String, Object> getStatistics() {
+        CacheStats stats = pages.stats();
+        Map<String, Object> result = CacheStatisticsService.describe(
+                stats.hitCount(), stats.missCount(), puts.sum(), pages.estimatedSize());
+        result.put("evictions", stats.evictionCount());
+        result.put("coalesced", loads.coalescedCount());
+        result.put("staleServed", (long) staleServed.count());
+        result.put("refreshes", (long) refreshed.count());
+        result.put("refreshFailures", (long) refreshFailed.count());
+        return result;
+    }
+
+    public Map<String, Map<String, Object>> getQueryStatistics() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        queryStats.asMap().forEach((query, stats) ->
+                result.put(query.label(), CacheStatisticsService.describe(stats.hits.sum(), stats.misses.sum(), stats.puts.sum(),
+                        pages.asMap().keySet().stream().filter(key -> key.query().equals(query)).count())));
+        return result;
+    }
+}
@@ -1,27 +1,62 @@
 package com.example.api_backend_atelier.service;
 
+import com.example.api_backend_atelier.dto.CursorPage;
+import com.example.api_backend_atelier.dto.ProductBulkRequest;
+import com.example.api_backend_atelier.dto.ProductBulkResult;
 import com.example.api_backend_atelier.dto.ProductCreateDto;
+import com.example.api_backend_atelier.dto.ProductCursor;
+import com.example.api_backend_atelier.dto.ProductRankCursor;
+import com.example.api_backend_atelier.dto.ProductSearchCriteria;
+import com.example.api_backend_atelier.dto.ProductSearchCursor;
+import com.example.api_backend_atelier.dto.ProductSearchHit;
+import com.example.api_backend_atelier.dto.ProductSummary;
 import com.example.api_backend_atelier.exception.ProductNotFoundException;
 import com.example.api_backend_atelier.model.Gender;
 import com.example.api_backend_atelier.model.Product;
 import com.example.api_backend_atelier.repository.ProductRepository;
+import com.example.api_backend_atelier.repository.ProductSpecifications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
-    private final ProductRepository productRepository;
+    private static final Logger log = LoggerFactory.getLogger(ProductService.class);
 
-    public ProductService(ProductRepository productRepository) {
+    private final ProductRepository productRepository;
+    private final ProductQueryCache queryCache;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int bulkIdChunkSize;
+
+    public ProductService(ProductRepository productRepository,
+                          ProductQueryCache queryCache,
+                          @Value("${products.page.default-size:20}") int defaultPageSize,
+                          @Value("${products.page.max-size:100}") int maxPageSize,
+                          @Value("${products.bulk.id-chunk-size:1000}") int bulkIdChunkSize) {
         this.productRepository = productRepository;
+        this.queryCache = queryCache;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.bulkIdChunkSize = bulkIdChunkSize;
     }
 
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public CursorPage<ProductSummary> getAllProducts(String cursor, Integer size) {
+        return loadPage(ProductQueryCache.Query.all(), cursor, size, (position, pageable) ->
+                productRepository.findPage(position.createdAt(), position.id(), pageable));
     }
 
     public Optional<Product> getProductById(Long id) {
@@ -35,12 +70,15 @@ public class ProductService {
         product.setGender(productDto.getGender());
         product.setDescription(productDto.getDescription());
         product.setCategory(productDto.getCategory());
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        queryCache.invalidate(ProductQueryCache.Snapshot.of(saved));
+        return saved;
     }
 
     public Product updateProduct(Long id, Product updatedProduct) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Продукт с ID " + id + " не найден"));
+        ProductQueryCache.Snapshot before = ProductQueryCache.Snapshot.of(product);
 
         if (updatedProduct.getPrice() != null) {
             product.setPrice(updatedProduct.getPrice());
@@ -59,26 +97,153 @@ public class ProductService {
 
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        queryCache.invalidate(before, ProductQueryCache.Snapshot.of(saved));
+        return saved;
     }
 
-    public List<Product> getProductsByGender(Gender gender) {
-        return productRepository.findByGender(gender);
+    public CursorPage<ProductSummary> getProductsByGender(Gender gender, String cursor, Integer size) {
+        return loadPage(ProductQueryCache.Query.byGender(gender), cursor, size, (position, pageable) ->
+                productRepository.findPageByGender(gender, position.createdAt(), position.id(), pageable));
     }
 
-    public List<Product> getProductsByPriceRange(Double minPrice, Double maxPrice) {
-        return productRepository.findByPriceBetween(minPrice, maxPrice);
+    public CursorPage<ProductSummary> getProductsByPriceRange(Double minPrice, Double maxPrice, String cursor, Integer size) {
+        if (minPrice > maxPrice) {
+            throw new IllegalArgumentException("Минимальная цена не может быть больше максимальной");
+        }
+        return loadPage(ProductQueryCache.Query.byPrice(minPrice, maxPrice), cursor, size, (position, pageable) ->
+                productRepository.findPageByPriceBetween(minPrice, maxPrice, position.createdAt(), position.id(), pageable));
     }
 
-    public List<Product> getProductsCreatedBetween(LocalDateTime startDate, LocalDateTime endDate) {
-        return productRepository.findByCreatedAtBetween(startDate, endDate);
+    public CursorPage<ProductSummary> getProductsCreatedBetween(LocalDateTime startDate, LocalDateTime endDate, String cursor, Integer size) {
+        return loadPage(ProductQueryCache.Query.byCreatedAt(startDate, endDate), cursor, size, (position, pageable) ->
+                productRepository.findPageByCreatedAtBetween(startDate, endDate, position.createdAt(), position.id(), pageable));
     }
 
     public void deleteProduct(Long id) {
+        Optional<ProductQueryCache.Snapshot> deleted = productRepository.findById(id).map(ProductQueryCache.Snapshot::of);
         productRepository.deleteById(id);
+        deleted.ifPresent(queryCache::invalidate);
+    }
+
+    public CursorPage<ProductSummary> getProductsByCategory(String category, String cursor, Integer size) {
+        return loadPage(ProductQueryCache.Query.byCategory(category), cursor, size, (position, pageable) ->
+                productRepository.findPageByCategory(category, position.createdAt(), position.id(), pageable));
+    }
+
+    public CursorPage<ProductSummary> searchProducts(ProductSearchCriteria criteria, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        ProductSearchCursor position = ProductSearchCursor.decode(cursor, criteria.sort());
+        return queryCache.get(ProductQueryCache.Query.search(criteria), cursor, pageSize, () -> {
+            List<ProductSummary> rows = productRepository.findSummaries(ProductSpecifications.matching(criteria, position),
+                    criteria.sort().toSort(), pageSize + 1);
+
+            boolean hasNext = rows.size() > pageSize;
+            List<ProductSummary> items = hasNext ? rows.subList(0, pageSize) : rows;
+            String nextCursor = hasNext ? ProductSearchCursor.of(criteria.sort(), items.get(items.size() - 1)).encode() : null;
+            return new CursorPage<>(items, nextCursor, items.size(), hasNext);
+        });
+    }
+
+    public ProductBulkResult applyBulk(ProductBulkRequest request) {
+        validateBulk(request);
+        long startedAt = System.nanoTime();
+        int affected = productRepository.bulkApply(request, bulkIdChunkSize);
+        queryCache.invalidateAll();
+        long durationMs = (System.nanoTime() - startedAt) / 1_000_000;
+        log.info("Массовая операция {} над продуктами: затронуто {} строк за {} мс", request.getOperation(), affected, durationMs);
+        return new ProductBulkResult(request.getOperation(), affected, durationMs);
+    }
+
+    private static String highlight(String snippet) {
+        if (snippet == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(snippet)
+                .replace(ProductRepository.HIGHLIGHT_START, "<mark>")
+                .replace(ProductRepository.HIGHLIGHT_STOP, "</mark>");
+    }
+
+    private static void validateBulk(ProductBulkRequest request) {
+        if (request.getOperation() == null) {
+            throw new IllegalArgumentException("Операция обязательна");
+        }
+        if (!request.hasFilter()) {
+            throw new IllegalArgumentException("Необходимо указать хотя бы один фильтр: category, gender или ids");
+        }
+        switch (request.getOperation()) {
+            case SET_PRICE -> {
+                if (request.getPrice() == null || request.getPrice() <= 0) {
+                    throw new IllegalArgumentException("Цена должна быть положительным числом");
+                }
+            }
+            case SCALE_PRICE -> {
+                if (request.getPercent() == null || request.getPercent() <= -100) {
+                    throw new IllegalArgumentException("Процент изменения цены должен быть больше -100");
+                }
+            }
+            case SET_CATEGORY -> {
+                if (request.getNewCategory() == null || request.getNewCategory().isBlank()) {
+                    throw new IllegalArgumentException("Новая категория обязательна");
+                }
+            }
+            case DELETE -> {
+            }
+        }
+    }
+
+    public CursorPage<ProductSearchHit> searchFullText(String text, String cursor, Integer size) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Поисковый запрос не может быть пустым");
+        }
+        int pageSize = resolvePageSize(size);
+        ProductRankCursor position = ProductRankCursor.decode(cursor);
+        List<ProductRepository.FullTextMatch> matches =
+                productRepository.searchFullText(text.trim(), position.rank(), position.id(), pageSize + 1);
+
+        boolean hasNext = matches.size() > pageSize;
+        List<ProductRepository.FullTextMatch> page = hasNext ? matches.subList(0, pageSize) : matches;
+        Map<Long, ProductSummary> products = productRepository.findSummariesByIdIn(
+                        page.stream().map(ProductRepository.FullTextMatch::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+
+        List<ProductSearchHit> hits = page.stream()
+                .filter(match -> products.containsKey(match.getId()))
+                .map(match -> new ProductSearchHit(products.get(match.getId()), match.getRank(), highlight(match.getSnippet())))
+                .toList();
+        String nextCursor = null;
+        if (hasNext) {
+            ProductRepository.FullTextMatch last = page.get(page.size() - 1);
+            nextCursor = new ProductRankCursor(last.getRank(), last.getId()).encode();
+        }
+        return new CursorPage<>(hits, nextCursor, hits.size(), hasNext);
     }
 
-    public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+    private CursorPage<ProductSummary> loadPage(ProductQueryCache.Query cacheQuery, String cursor, Integer size,
+                                         BiFunction<ProductCursor, Pageable, List<ProductSummary>> query) {
+        int pageSize = resolvePageSize(size);
+        ProductCursor position = ProductCursor.decode(cursor);
+        return queryCache.get(cacheQuery, cursor, pageSize, () -> fetchPage(position, pageSize, query));
+    }
+
+    private CursorPage<ProductSummary> fetchPage(ProductCursor position, int pageSize,
+                                          BiFunction<ProductCursor, Pageable, List<ProductSummary>> query) {
+        List<ProductSummary> rows = query.apply(position, PageRequest.ofSize(pageSize + 1));
+
+        boolean hasNext = rows.size() > pageSize;
+        List<ProductSummary> items = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? ProductCursor.of(items.get(items.size() - 1)).encode() : null;
+        return new CursorPage<>(items, nextCursor, items.size(), hasNext);
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным");
+        }
+        return Math.min(size, maxPageSize);
     }
 }
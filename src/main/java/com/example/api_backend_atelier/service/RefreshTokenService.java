@@ -0,0 +1,25 @@
+package com.example.api_backend_atelier.service;
+
+import com.example.api_backend_atelier.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private final UserRepository userRepository;
+
+    @Transactional
+    public void store(UUID userId, String refreshTokenHash, String familyHash, LocalDateTime expiresAt) {
+        userRepository.findById(userId).ifPresent(user -> {
+            user.setRefreshToken(refreshTokenHash);
+            user.setRefreshTokenFamily(familyHash);
+            user.setRefreshTokenExpiresAt(expiresAt);
+        });
+    }
+}
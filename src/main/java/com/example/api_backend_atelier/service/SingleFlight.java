@@ -0,0 +1,75 @@
+package com.example.api_backend_atelier.service;
+
+import com.example.api_backend_atelier.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+public class SingleFlight<K, V> {
+
+    private static final Logger log = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Duration timeout;
+    private final long retryAfterSeconds;
+    private final Counter executed;
+    private final Counter coalesced;
+    private final Counter timedOut;
+
+    public SingleFlight(String name, Duration timeout, long retryAfterSeconds, MeterRegistry meterRegistry) {
+        this.timeout = timeout;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executed = Counter.builder("singleflight.calls").tag("name", name).tag("result", "executed").register(meterRegistry);
+        this.coalesced = Counter.builder("singleflight.calls").tag("name", name).tag("result", "coalesced").register(meterRegistry);
+        this.timedOut = Counter.builder("singleflight.calls").tag("name", name).tag("result", "timeout").register(meterRegistry);
+        Gauge.builder("singleflight.inflight", inFlight, ConcurrentMap::size).tag("name", name).register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader == null) {
+            executed.increment();
+            try {
+                V value = loader.get();
+                flight.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, flight);
+            }
+        }
+
+        coalesced.increment();
+        try {
+            return leader.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            log.warn("Ожидание общего запроса {} превысило {} мс.", key, timeout.toMillis());
+            throw new ServiceUnavailableException("Сервис перегружен, повторите попытку позже.", retryAfterSeconds, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Ожидание запроса прервано.", retryAfterSeconds, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Ошибка выполнения общего запроса", e.getCause());
+        }
+    }
+
+    public long coalescedCount() {
+        return (long) coalesced.count();
+    }
+}
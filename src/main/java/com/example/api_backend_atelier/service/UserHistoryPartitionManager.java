@@ -0,0 +1,210 @@
+package com.example.api_backend_atelier.service;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+@Component
+public class UserHistoryPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(UserHistoryPartitionManager.class);
+
+    private static final String PARENT_TABLE = "user_history";
+    private static final String DEFAULT_PARTITION = "user_history_default";
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("^user_history_p(\\d{6})$");
+    private static final long MAINTENANCE_LOCK = 0x7573657268697374L;
+
+    private static final String LIST_PARTITIONS_SQL =
+            "select c.relname, i.inhrelid is not null as attached " +
+            "from pg_class c " +
+            "join pg_namespace n on n.oid = c.relnamespace " +
+            "left join pg_inherits i on i.inhrelid = c.oid " +
+            "where n.nspname = current_schema() and c.relkind = 'r' and c.relname ~ '^user_history_p[0-9]{6}$' " +
+            "order by c.relname";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final Path archiveDirectory;
+
+    public UserHistoryPartitionManager(JdbcTemplate jdbcTemplate,
+                                       @Value("${audit.partitions.months-ahead:3}") int monthsAhead,
+                                       @Value("${audit.partitions.retention-months:12}") int retentionMonths,
+                                       @Value("${audit.partitions.archive-directory:archive/user_history}") Path archiveDirectory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archiveDirectory = archiveDirectory;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${audit.partitions.maintenance-cron:0 15 3 * * *}")
+    public void maintain() {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                if (!tryLock(connection)) {
+                    log.debug("Обслуживание партиций {} уже выполняется другим экземпляром", PARENT_TABLE);
+                    return null;
+                }
+                try {
+                    createFuturePartitions(connection);
+                    archiveExpiredPartitions(connection);
+                } finally {
+                    unlock(connection);
+                }
+                return null;
+            });
+        } catch (DataAccessException | UncheckedIOException e) {
+            log.error("Ошибка обслуживания партиций {}: ", PARENT_TABLE, e);
+        }
+    }
+
+    private void createFuturePartitions(Connection connection) throws SQLException {
+        YearMonth current = YearMonth.now();
+        for (int offset = 0; offset <= monthsAhead; offset++) {
+            YearMonth month = current.plusMonths(offset);
+            String name = partitionName(month);
+            if (!exists(connection, name)) {
+                createPartition(connection, name, month);
+            }
+        }
+    }
+
+    private void createPartition(Connection connection, String name, YearMonth month) throws SQLException {
+        String from = month.atDay(1).atStartOfDay().toString();
+        String to = month.plusMonths(1).atDay(1).atStartOfDay().toString();
+        String range = "timestamp >= '" + from + "' and timestamp < '" + to + "'";
+
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            long strayRows = count(statement, "select count(*) from " + DEFAULT_PARTITION + " where " + range);
+            if (strayRows > 0) {
+                statement.execute("create temporary table user_history_move (like " + PARENT_TABLE + ") on commit drop");
+                statement.execute("with moved as (delete from " + DEFAULT_PARTITION + " where " + range + " returning *) " +
+                        "insert into user_history_move select * from moved");
+            }
+            statement.execute("create table " + name + " partition of " + PARENT_TABLE +
+                    " for values from ('" + from + "') to ('" + to + "')");
+            if (strayRows > 0) {
+                statement.execute("insert into " + PARENT_TABLE + " select * from user_history_move");
+                log.warn("В партицию {} перенесено {} строк из {}", name, strayRows, DEFAULT_PARTITION);
+            }
+            connection.commit();
+            log.info("Создана партиция {} для {}", name, month);
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void archiveExpiredPartitions(Connection connection) throws SQLException {
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+        Map<String, Boolean> partitions = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LIST_PARTITIONS_SQL)) {
+            while (resultSet.next()) {
+                partitions.put(resultSet.getString(1), resultSet.getBoolean(2));
+            }
+        }
+
+        for (Map.Entry<String, Boolean> partition : partitions.entrySet()) {
+            Matcher matcher = PARTITION_NAME.matcher(partition.getKey());
+            if (matcher.matches() && YearMonth.parse(matcher.group(1), SUFFIX_FORMAT).isBefore(oldestKept)) {
+                archive(connection, partition.getKey(), partition.getValue());
+            }
+        }
+    }
+
+    private void archive(Connection connection, String name, boolean attached) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (attached) {
+                statement.execute("alter table " + PARENT_TABLE + " detach partition " + name);
+                log.info("Партиция {} отсоединена от {}", name, PARENT_TABLE);
+            }
+
+            Path target = archiveDirectory.resolve(name + ".csv.gz");
+            Path temporary = archiveDirectory.resolve(name + ".csv.gz.tmp");
+            long rows;
+            try {
+                Files.createDirectories(archiveDirectory);
+                try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                    rows = connection.unwrap(PGConnection.class).getCopyAPI()
+                            .copyOut("copy " + name + " to stdout with (format csv, header)", out);
+                }
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось выгрузить партицию " + name + " в " + target, e);
+            }
+
+            statement.execute("drop table " + name);
+            log.info("Партиция {} выгружена в {} ({} строк) и удалена", name, target.toAbsolutePath(), rows);
+        }
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select pg_try_advisory_lock(?)")) {
+            statement.setLong(1, MAINTENANCE_LOCK);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private static void unlock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select pg_advisory_unlock(?)")) {
+            statement.setLong(1, MAINTENANCE_LOCK);
+            statement.execute();
+        }
+    }
+
+    private static boolean exists(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select to_regclass(?) is not null")) {
+            statement.setString(1, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private static long count(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARENT_TABLE + "_p" + month.format(SUFFIX_FORMAT);
+    }
+}
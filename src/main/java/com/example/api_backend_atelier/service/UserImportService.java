@@ -0,0 +1,338 @@
+package com.example.api_backend_atelier.service;
+
+import com.example.api_backend_atelier.config.CustomUserDetailsService;
+import com.example.api_backend_atelier.dto.ImportReport;
+import com.example.api_backend_atelier.dto.UserImportRow;
+import com.example.api_backend_atelier.exception.ServiceUnavailableException;
+import com.example.api_backend_atelier.model.AppUser;
+import com.example.api_backend_atelier.model.Role;
+import com.example.api_backend_atelier.model.UserAction;
+import com.example.api_backend_atelier.repository.UserRepository;
+import com.example.api_backend_atelier.security.BoundedPasswordEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final int MAX_PASSWORD_BYTES = 72;
+    private static final long RETRY_AFTER_SECONDS = 60;
+
+    private static final String INSERT_SQL =
+            "insert into app_user (id, name, last_name, number, password, vk_id, gender, email, " +
+            "enabled, locked, role, token_version, registered_at) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, true, false, ?, 0, ?)";
+
+    private record Row(long rowNumber, UUID id, AppUser user) {
+    }
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final CustomUserDetailsService userDetailsService;
+    private final AuditLog auditLog;
+    private final Validator validator;
+    private final PasswordEncoder hasher;
+    private final ForkJoinPool hashingPool;
+    private final Semaphore importPermit = new Semaphore(1);
+    private final int chunkSize;
+    private final long progressInterval;
+    private final int maxReportedErrors;
+
+    public UserImportService(UserRepository userRepository,
+                             JdbcTemplate jdbcTemplate,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             CustomUserDetailsService userDetailsService,
+                             AuditLog auditLog,
+                             Validator validator,
+                             PasswordEncoder passwordEncoder,
+                             @Value("${users.import.hash-parallelism:0}") int hashParallelism,
+                             @Value("${users.import.chunk-size:500}") int chunkSize,
+                             @Value("${users.import.progress-interval:5000}") long progressInterval,
+                             @Value("${users.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userDetailsService = userDetailsService;
+        this.auditLog = auditLog;
+        this.validator = validator;
+        this.hasher = passwordEncoder instanceof BoundedPasswordEncoder bounded ? bounded.getDelegate() : passwordEncoder;
+        int parallelism = hashParallelism > 0 ? hashParallelism : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.hashingPool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            worker.setName("user-import-hash-" + worker.getPoolIndex());
+            return worker;
+        }, null, false);
+        this.chunkSize = chunkSize;
+        this.progressInterval = progressInterval;
+        this.maxReportedErrors = maxReportedErrors;
+        log.info("Пул хеширования паролей импорта пользователей: {} потоков", parallelism);
+    }
+
+    public ImportReport importUsers(InputStream input, ImportFormat format) throws IOException {
+        if (!importPermit.tryAcquire()) {
+            throw new ServiceUnavailableException("Импорт пользователей уже выполняется, повторите позже.", RETRY_AFTER_SECONDS);
+        }
+        ImportRun run = new ImportRun();
+        try (Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            if (format == ImportFormat.CSV) {
+                readCsv(reader, run);
+            } else {
+                readJson(reader, run);
+            }
+            run.writeChunk();
+        } finally {
+            importPermit.release();
+            ImportReport report = run.report;
+            report.finish(run.startedAt);
+            log.info("Импорт пользователей: строк {}, добавлено {}, дубликатов {}, ошибок {}, {} мс ({} строк/с)",
+                    report.getTotalRows(), report.getImported(), report.getDuplicates(), report.getInvalid(),
+                    report.getDurationMs(), String.format("%.0f", report.getRowsPerSecond()));
+        }
+        return run.report;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    private void readJson(Reader reader, ImportRun run) throws IOException {
+        ImportRows.readJson(objectMapper, reader, UserImportRow.class, run.report, maxReportedErrors, run::accept);
+    }
+
+    private void readCsv(Reader reader, ImportRun run) throws IOException {
+        ImportRows.readCsv(reader, List.of("number", "password"), row -> {
+            UserImportRow user = new UserImportRow();
+            user.setNumber(row.column("number"));
+            user.setPassword(row.column("password"));
+            user.setName(row.column("name"));
+            user.setLastName(row.column("lastname"));
+            user.setEmail(row.column("email"));
+            user.setVkId(row.column("vkid"));
+            String gender = row.column("gender");
+            if (gender != null) {
+                try {
+                    user.setGender(ImportRows.parseGender(gender));
+                } catch (IllegalArgumentException e) {
+                    run.report.setTotalRows(run.report.getTotalRows() + 1);
+                    run.report.invalid(run.report.getTotalRows(), user.getNumber(), e.getMessage(), maxReportedErrors);
+                    return;
+                }
+            }
+            run.accept(user);
+        });
+    }
+
+    private final class ImportRun {
+
+        private final long startedAt = System.nanoTime();
+        private final ImportReport report = new ImportReport();
+        private final Set<String> seenNumbers = new HashSet<>();
+        private final Set<String> seenEmails = new HashSet<>();
+        private final Set<String> seenVkIds = new HashSet<>();
+        private final List<Row> chunk = new ArrayList<>(chunkSize);
+        private long nextProgressAt = progressInterval;
+
+        void accept(UserImportRow row) {
+            report.setTotalRows(report.getTotalRows() + 1);
+            long rowNumber = report.getTotalRows();
+            if (row == null) {
+                report.invalid(rowNumber, null, "Пустая строка", maxReportedErrors);
+                return;
+            }
+
+            AppUser user = toAppUser(row);
+            String problem = validate(user);
+            if (problem != null) {
+                report.invalid(rowNumber, user.getNumber(), problem, maxReportedErrors);
+                return;
+            }
+            if (!seenNumbers.add(user.getNumber())) {
+                report.duplicate(rowNumber, user.getNumber(), "Номер телефона повторяется в файле", maxReportedErrors);
+                return;
+            }
+            if (user.getEmail() != null && !seenEmails.add(user.getEmail())) {
+                report.duplicate(rowNumber, user.getNumber(), "Email повторяется в файле", maxReportedErrors);
+                return;
+            }
+            if (user.getVkId() != null && !seenVkIds.add(user.getVkId())) {
+                report.duplicate(rowNumber, user.getNumber(), "VK ID повторяется в файле", maxReportedErrors);
+                return;
+            }
+
+            chunk.add(new Row(rowNumber, UUID.randomUUID(), user));
+            if (chunk.size() >= chunkSize) {
+                writeChunk();
+            }
+        }
+
+        void writeChunk() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<Row> fresh = withoutExisting(chunk);
+            chunk.clear();
+
+            if (!fresh.isEmpty()) {
+                List<String> hashes = hash(fresh);
+                LocalDateTime registeredAt = LocalDateTime.now();
+                List<Row> inserted;
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(fresh, hashes, registeredAt));
+                    inserted = fresh;
+                } catch (DataIntegrityViolationException e) {
+                    log.warn("Пакет импорта пользователей отклонен базой данных, повтор построчно: {}",
+                            e.getMostSpecificCause().getMessage());
+                    inserted = insertOneByOne(fresh, hashes, registeredAt);
+                }
+                report.setImported(report.getImported() + inserted.size());
+                userDetailsService.evictAll(inserted.stream().map(row -> row.user().getNumber()).toList());
+                auditLog.recordAll(inserted.stream().map(Row::id).toList(), UserAction.REGISTERED, "Импорт пользователей");
+            }
+
+            if (report.getTotalRows() >= nextProgressAt) {
+                double elapsedSeconds = Math.max(1, System.nanoTime() - startedAt) / 1_000_000_000d;
+                log.info("Импорт пользователей: обработано {} строк, добавлено {}, {} строк/с",
+                        report.getTotalRows(), report.getImported(),
+                        String.format("%.0f", report.getTotalRows() / elapsedSeconds));
+                nextProgressAt = (report.getTotalRows() / progressInterval + 1) * progressInterval;
+            }
+        }
+
+        private List<Row> withoutExisting(List<Row> rows) {
+            Set<String> numbers = new HashSet<>(userRepository.findExistingNumbers(
+                    rows.stream().map(row -> row.user().getNumber()).toList()));
+            List<String> emails = rows.stream().map(row -> row.user().getEmail()).filter(Objects::nonNull).toList();
+            Set<String> takenEmails = emails.isEmpty() ? Set.of() : new HashSet<>(userRepository.findExistingEmails(emails));
+            List<String> vkIds = rows.stream().map(row -> row.user().getVkId()).filter(Objects::nonNull).toList();
+            Set<String> takenVkIds = vkIds.isEmpty() ? Set.of() : new HashSet<>(userRepository.findExistingVkIds(vkIds));
+
+            List<Row> fresh = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                AppUser user = row.user();
+                if (numbers.contains(user.getNumber())) {
+                    report.duplicate(row.rowNumber(), user.getNumber(), "Пользователь с таким номером телефона уже существует", maxReportedErrors);
+                } else if (user.getEmail() != null && takenEmails.contains(user.getEmail())) {
+                    report.duplicate(row.rowNumber(), user.getNumber(), "Email уже используется", maxReportedErrors);
+                } else if (user.getVkId() != null && takenVkIds.contains(user.getVkId())) {
+                    report.duplicate(row.rowNumber(), user.getNumber(), "VK ID уже используется", maxReportedErrors);
+                } else {
+                    fresh.add(row);
+                }
+            }
+            return fresh;
+        }
+
+        private List<Row> insertOneByOne(List<Row> rows, List<String> hashes, LocalDateTime registeredAt) {
+            List<Row> inserted = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                Row row = rows.get(i);
+                List<Row> single = List.of(row);
+                List<String> hash = List.of(hashes.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(single, hash, registeredAt));
+                    inserted.add(row);
+                } catch (DataIntegrityViolationException e) {
+                    report.duplicate(row.rowNumber(), row.user().getNumber(),
+                            "Номер телефона, email или VK ID уже используется", maxReportedErrors);
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private List<String> hash(List<Row> rows) {
+        try {
+            return hashingPool.submit(() -> rows.parallelStream()
+                    .map(row -> hasher.encode(row.user().getPassword()))
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Импорт пользователей прерван", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка хеширования паролей при импорте", e.getCause());
+        }
+    }
+
+    private void insert(List<Row> rows, List<String> hashes, LocalDateTime registeredAt) {
+        Timestamp timestamp = Timestamp.valueOf(registeredAt);
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                AppUser user = rows.get(i).user();
+                statement.setObject(1, rows.get(i).id());
+                statement.setString(2, user.getName());
+                statement.setString(3, user.getLastName());
+                statement.setString(4, user.getNumber());
+                statement.setString(5, hashes.get(i));
+                statement.setString(6, user.getVkId());
+                statement.setString(7, user.getGender() == null ? null : user.getGender().name());
+                statement.setString(8, user.getEmail());
+                statement.setString(9, Role.USER.name());
+                statement.setTimestamp(10, timestamp);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    private static AppUser toAppUser(UserImportRow row) {
+        AppUser user = new AppUser();
+        user.setNumber(row.getNumber());
+        user.setPassword(row.getPassword());
+        user.setName(row.getName());
+        user.setLastName(row.getLastName());
+        user.setEmail(row.getEmail());
+        user.setVkId(row.getVkId());
+        user.setGender(row.getGender());
+        return user;
+    }
+
+    private String validate(AppUser user) {
+        Optional<String> violation = validator.validate(user).stream()
+                .sorted(Comparator.comparing((ConstraintViolation<AppUser> v) -> v.getPropertyPath().toString())
+                        .thenComparing(ConstraintViolation::getMessage))
+                .map(ConstraintViolation::getMessage)
+                .findFirst();
+        if (violation.isPresent()) {
+            return violation.get();
+        }
+        if (user.getPassword().getBytes(StandardCharsets.UTF_8).length > MAX_PASSWORD_BYTES) {
+            return "Пароль не должен превышать " + MAX_PASSWORD_BYTES + " байта.";
+        }
+        return null;
+    }
+}
@@ -1,26 +1,45 @@
 package com.example.api_backend_atelier.service;
 
+import com.example.api_backend_atelier.config.CustomUserDetails;
+import com.example.api_backend_atelier.config.CustomUserDetailsService;
+import com.example.api_backend_atelier.dto.AuthTokens;
+import com.example.api_backend_atelier.dto.BulkUserResponse;
+import com.example.api_backend_atelier.dto.CursorPage;
+import com.example.api_backend_atelier.dto.UserCursor;
 import com.example.api_backend_atelier.dto.UserDto;
+import com.example.api_backend_atelier.dto.UserFilter;
+import com.example.api_backend_atelier.dto.UserHistoryCursor;
+import com.example.api_backend_atelier.dto.UserHistoryDto;
 import com.example.api_backend_atelier.exception.AuthenticationException;
 import com.example.api_backend_atelier.exception.ResourceNotFoundException;
 import com.example.api_backend_atelier.exception.UserAlreadyExistsException;
 import com.example.api_backend_atelier.model.AppUser;
+import com.example.api_backend_atelier.model.Role;
+import com.example.api_backend_atelier.model.UserAction;
+import com.example.api_backend_atelier.repository.UserHistoryRepository;
 import com.example.api_backend_atelier.repository.UserRepository;
 import com.example.api_backend_atelier.security.JwtTokenProvider;
+import com.example.api_backend_atelier.security.TokenVersionRegistry;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
-import java.util.NoSuchElementException;
-import java.util.UUID;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,13 +47,37 @@ public class UserService {
 
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
 
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private record RefreshTokenParts(UUID userId, String family) {
+    }
+
+    private static final Pattern PHONE_NUMBER = Pattern.compile(AppUser.NUMBER_PATTERN);
+
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final RefreshTokenService refreshTokenService;
+    private final PlatformTransactionManager transactionManager;
+    private final AuditLog auditLog;
+    private final UserHistoryRepository userHistoryRepository;
+
+    @Value("${admin.users.page.default-size:50}")
+    private int defaultUsersPageSize;
+
+    @Value("${admin.users.page.max-size:200}")
+    private int maxUsersPageSize;
+
+    @Value("${users.bulk.max-items:10000}")
+    private int maxBulkItems;
+
+    @Value("${users.bulk.chunk-size:500}")
+    private int bulkChunkSize;
 
 
-    @Transactional
     public AppUser registerUser(AppUser appUser) {
         log.info("Попытка регистрации пользователя с номером: {}", appUser.getNumber());
         if (userRepository.findByNumber(appUser.getNumber()).isPresent()) {
@@ -43,24 +86,95 @@ public class UserService {
         }
         appUser.setPassword(passwordEncoder.encode(appUser.getPassword()));
         AppUser savedUser = userRepository.save(appUser);
+        userDetailsService.evict(savedUser.getNumber());
+        auditLog.record(savedUser.getId(), UserAction.REGISTERED, null);
         log.info("Пользователь успешно зарегистрирован: {}", savedUser.getNumber());
         return savedUser;
     }
 
-    public String authenticateUser(String phoneNumber, String password) {
+    public AuthTokens authenticateUser(String phoneNumber, String password) {
         log.info("Попытка аутентификации пользователя с номером: {}", phoneNumber);
         try {
             Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(phoneNumber, password));
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            String token = jwtTokenProvider.generateToken(phoneNumber);
+            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+            AuthTokens tokens = issueTokens(userDetails.appUser(), jwtTokenProvider.generateRefreshTokenFamily());
+            auditLog.record(userDetails.appUser().getId(), UserAction.LOGIN, null);
             log.info("Пользователь успешно аутентифицирован: {}", phoneNumber);
-            return token;
+            return tokens;
         } catch (org.springframework.security.core.AuthenticationException e) {
             log.warn("Ошибка аутентификации пользователя {}: {}", phoneNumber, e.getMessage());
             throw new AuthenticationException("Неверный номер телефона или пароль.");
         }
     }
 
+    @Transactional(noRollbackFor = AuthenticationException.class)
+    public AuthTokens refreshTokens(String refreshToken) {
+        RefreshTokenParts parts = parseRefreshToken(refreshToken);
+        AppUser user = userRepository.findByIdForUpdate(parts.userId())
+                .orElseThrow(() -> new AuthenticationException("Refresh-токен недействителен."));
+
+        if (!jwtTokenProvider.matchesRefreshToken(refreshToken, user.getRefreshToken())) {
+            if (user.getRefreshToken() == null
+                    || !jwtTokenProvider.matchesRefreshToken(parts.family(), user.getRefreshTokenFamily())) {
+                log.warn("Недействительный refresh-токен для пользователя {}.", user.getNumber());
+                throw new AuthenticationException("Refresh-токен недействителен.");
+            }
+            log.warn("Повторное использование refresh-токена пользователя {}, все сессии отозваны.", user.getNumber());
+            user.setRefreshToken(null);
+            user.setRefreshTokenFamily(null);
+            user.setRefreshTokenExpiresAt(null);
+            int tokenVersion = user.bumpTokenVersion();
+            userRepository.save(user);
+            userDetailsService.evict(user.getNumber());
+            tokenVersionRegistry.publish(user.getNumber(), tokenVersion);
+            auditLog.record(user.getId(), UserAction.SESSIONS_REVOKED, "Повторное использование refresh-токена");
+            throw new AuthenticationException("Refresh-токен недействителен.");
+        }
+        if (user.getRefreshTokenExpiresAt() == null || user.getRefreshTokenExpiresAt().isBefore(LocalDateTime.now())) {
+            log.warn("Срок действия refresh-токена пользователя {} истек.", user.getNumber());
+            throw new AuthenticationException("Срок действия refresh-токена истек.");
+        }
+        if (!user.isActive()) {
+            log.warn("Попытка обновления токена неактивным пользователем {}.", user.getNumber());
+            throw new AuthenticationException("Пользователь заблокирован или неактивен.");
+        }
+
+        AuthTokens tokens = issueTokens(user, parts.family());
+        log.info("Токены пользователя {} обновлены.", user.getNumber());
+        return tokens;
+    }
+
+    @Transactional
+    public void revokeRefreshToken(String phoneNumber) {
+        userRepository.findByNumber(phoneNumber)
+                .ifPresent(user -> {
+                    user.setRefreshToken(null);
+                    user.setRefreshTokenFamily(null);
+                    user.setRefreshTokenExpiresAt(null);
+                });
+        log.info("Refresh-токен пользователя {} отозван.", phoneNumber);
+    }
+
+    private RefreshTokenParts parseRefreshToken(String refreshToken) {
+        String[] parts = refreshToken == null ? new String[0] : refreshToken.split("\\.", -1);
+        if (parts.length != 3 || parts[1].isEmpty() || parts[2].isEmpty()) {
+            throw new AuthenticationException("Refresh-токен недействителен.");
+        }
+        try {
+            return new RefreshTokenParts(UUID.fromString(parts[0]), parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new AuthenticationException("Refresh-токен недействителен.");
+        }
+    }
+
+    private AuthTokens issueTokens(AppUser user, String family) {
+        String refreshToken = jwtTokenProvider.generateRefreshToken(user, family);
+        refreshTokenService.store(user.getId(), jwtTokenProvider.hashRefreshToken(refreshToken),
+                jwtTokenProvider.hashRefreshToken(family), jwtTokenProvider.getRefreshTokenExpiry());
+        return new AuthTokens(jwtTokenProvider.generateToken(user), refreshToken);
+    }
+
     public AppUser getUserByPhoneNumber(String phoneNumber) {
         log.info("Поиск пользователя с номером: {}", phoneNumber);
         return userRepository.findByNumber(phoneNumber)
@@ -92,19 +206,184 @@ public class UserService {
     @Transactional
     public void deleteUser(UUID id) {
         log.info("Попытка удаления пользователя с ID: {}", id);
-        if (!userRepository.existsById(id)) {
-            log.warn("Пользователь с ID {} не найден для удаления.", id);
-            throw new ResourceNotFoundException("Пользователь с таким ID не найден.");
-        }
-        userRepository.deleteById(id);
+        AppUser user = userRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Пользователь с ID {} не найден для удаления.", id);
+                    return new ResourceNotFoundException("Пользователь с таким ID не найден.");
+                });
+        userRepository.delete(user);
+        userDetailsService.evict(user.getNumber());
+        tokenVersionRegistry.forget(user.getNumber());
         log.info("Пользователь с ID {} успешно удален.", id);
     }
 
-    public List<AppUser> getAllUsers() {
-        log.info("Запрос на получение всех пользователей");
-        List<AppUser> users = userRepository.findAll();
-        log.info("Найдено {} пользователей", users.size());
-        return users;
+    public BulkUserResponse setLockedInBulk(List<String> numbers, boolean locked) {
+        BulkUserResponse response = new BulkUserResponse();
+        List<String> valid = validNumbers(numbers, response);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        String actor = actorDetails();
+
+        for (List<String> chunk : chunks(valid)) {
+            Map<String, UserRepository.UserState> states = transaction.execute(status -> {
+                Map<String, UserRepository.UserState> found = userRepository.findStatesByNumberIn(chunk).stream()
+                        .collect(Collectors.toMap(UserRepository.UserState::getNumber, Function.identity()));
+                userRepository.updateLockedByNumberIn(chunk, locked);
+                return found;
+            });
+            userDetailsService.evictAll(states.keySet());
+            tokenVersionRegistry.forgetAll(states.keySet());
+
+            List<UUID> changed = new ArrayList<>();
+            for (String number : chunk) {
+                UserRepository.UserState state = states.get(number);
+                if (state == null) {
+                    response.add(number, BulkUserResponse.Outcome.NOT_FOUND);
+                } else if (state.getLocked() == locked) {
+                    response.add(number, BulkUserResponse.Outcome.UNCHANGED);
+                } else {
+                    response.add(number, BulkUserResponse.Outcome.UPDATED);
+                    changed.add(state.getId());
+                }
+            }
+            auditLog.recordAll(changed, locked ? UserAction.BLOCKED : UserAction.UNBLOCKED, actor);
+        }
+        log.info("Массовая {} пользователей: запрошено {}, изменено {}",
+                locked ? "блокировка" : "разблокировка", response.getRequested(), response.getUpdated());
+        return response;
+    }
+
+    public BulkUserResponse changeRoleInBulk(List<UUID> ids, Role role) {
+        if (role == null) {
+            throw new IllegalArgumentException("Роль обязательна");
+        }
+        BulkUserResponse response = new BulkUserResponse();
+        List<UUID> distinct = requireBulkItems(ids).stream().filter(Objects::nonNull).distinct().toList();
+        response.setRequested(distinct.size());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        String actor = actorDetails();
+
+        for (List<UUID> chunk : chunks(distinct)) {
+            Map<UUID, UserRepository.UserState> states = transaction.execute(status -> {
+                Map<UUID, UserRepository.UserState> found = userRepository.findStatesByIdIn(chunk).stream()
+                        .collect(Collectors.toMap(UserRepository.UserState::getId, Function.identity()));
+                userRepository.updateRoleByIdIn(chunk, role);
+                return found;
+            });
+            List<String> numbers = states.values().stream().map(UserRepository.UserState::getNumber).toList();
+            userDetailsService.evictAll(numbers);
+            tokenVersionRegistry.forgetAll(numbers);
+
+            List<UUID> changed = new ArrayList<>();
+            for (UUID id : chunk) {
+                UserRepository.UserState state = states.get(id);
+                if (state == null) {
+                    response.add(id.toString(), BulkUserResponse.Outcome.NOT_FOUND);
+                } else if (state.getRole() == role) {
+                    response.add(id.toString(), BulkUserResponse.Outcome.UNCHANGED);
+                } else {
+                    response.add(id.toString(), BulkUserResponse.Outcome.UPDATED);
+                    changed.add(id);
+                }
+            }
+            auditLog.recordAll(changed, UserAction.ROLE_CHANGED, "-> " + role + ", " + actor);
+        }
+        log.info("Массовое изменение роли на {}: запрошено {}, изменено {}", role, response.getRequested(), response.getUpdated());
+        return response;
+    }
+
+    public BulkUserResponse lookupInBulk(List<String> numbers) {
+        BulkUserResponse response = new BulkUserResponse();
+        List<String> valid = validNumbers(numbers, response);
+        for (List<String> chunk : chunks(valid)) {
+            Map<String, UserDto> found = userRepository.findDtosByNumberIn(chunk).stream()
+                    .collect(Collectors.toMap(UserDto::getNumber, Function.identity()));
+            for (String number : chunk) {
+                UserDto user = found.get(number);
+                response.add(number, user == null ? BulkUserResponse.Outcome.NOT_FOUND : BulkUserResponse.Outcome.FOUND, user);
+            }
+        }
+        return response;
+    }
+
+    private static String actorDetails() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? "Выполнено системой" : "Выполнил: " + authentication.getName();
+    }
+
+    private List<String> validNumbers(List<String> numbers, BulkUserResponse response) {
+        Set<String> distinct = new LinkedHashSet<>(requireBulkItems(numbers));
+        response.setRequested(distinct.size());
+        List<String> valid = new ArrayList<>(distinct.size());
+        for (String number : distinct) {
+            if (number == null || !PHONE_NUMBER.matcher(number).matches()) {
+                response.add(number, BulkUserResponse.Outcome.INVALID);
+            } else {
+                valid.add(number);
+            }
+        }
+        return valid;
+    }
+
+    private <T> List<T> requireBulkItems(List<T> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Список пользователей пуст");
+        }
+        if (items.size() > maxBulkItems) {
+            throw new IllegalArgumentException("Слишком много пользователей в запросе, максимум " + maxBulkItems);
+        }
+        return items;
+    }
+
+    private <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += bulkChunkSize) {
+            chunks.add(items.subList(from, Math.min(from + bulkChunkSize, items.size())));
+        }
+        return chunks;
+    }
+
+    public CursorPage<UserDto> getUsers(UserFilter filter, String cursor, Integer size) {
+        int pageSize = size == null ? defaultUsersPageSize : size;
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным");
+        }
+        pageSize = Math.min(pageSize, maxUsersPageSize);
+
+        List<UserDto> rows = userRepository.findUserPage(filter, UserCursor.decode(cursor), pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<UserDto> items = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? UserCursor.of(items.get(items.size() - 1)).encode() : null;
+        log.info("Запрос списка пользователей {}: возвращено {}", filter, items.size());
+        return new CursorPage<>(items, nextCursor, items.size(), hasNext);
+    }
+
+    public CursorPage<UserHistoryDto> getUserHistory(UUID userId, LocalDateTime from, LocalDateTime to,
+                                                     String cursor, Integer size) {
+        int pageSize = size == null ? defaultUsersPageSize : size;
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным");
+        }
+        pageSize = Math.min(pageSize, maxUsersPageSize);
+        LocalDateTime lowerBound = from == null ? HISTORY_START : from;
+        LocalDateTime upperBound = to == null ? LocalDateTime.now() : to;
+        if (lowerBound.isAfter(upperBound)) {
+            throw new IllegalArgumentException("Начало периода позже его окончания");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new NoSuchElementException("Пользователь с ID " + userId + " не найден.");
+        }
+
+        UserHistoryCursor position = UserHistoryCursor.decode(cursor);
+        if (position == null || position.timestamp().isAfter(upperBound)) {
+            position = UserHistoryCursor.first(upperBound);
+        }
+        List<UserHistoryDto> rows = userHistoryRepository.findPage(userId, lowerBound,
+                position.timestamp(), position.id(), PageRequest.ofSize(pageSize + 1));
+        boolean hasNext = rows.size() > pageSize;
+        List<UserHistoryDto> items = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? UserHistoryCursor.of(items.get(items.size() - 1)).encode() : null;
+        log.info("Запрос истории пользователя {}: возвращено {}", userId, items.size());
+        return new CursorPage<>(items, nextCursor, items.size(), hasNext);
     }
 
     @Transactional
@@ -120,13 +399,18 @@ public class UserService {
             existingUser.setLastName(userDto.getLastName());
         }
         if (userDto.getNumber() != null) {
+            userDetailsService.evict(existingUser.getNumber());
+            tokenVersionRegistry.forget(existingUser.getNumber());
             existingUser.setNumber(userDto.getNumber());
         }
         if (userDto.getEmail() != null) {
             existingUser.setEmail(userDto.getEmail());
         }
+        AppUser savedUser = userRepository.save(existingUser);
+        userDetailsService.evict(savedUser.getNumber());
+        auditLog.record(savedUser.getId(), UserAction.PROFILE_UPDATED, actorDetails());
         log.info("Данные пользователя с ID {} успешно обновлены", id);
-        return userRepository.save(existingUser);
+        return savedUser;
     }
 
     @Transactional
@@ -144,16 +428,40 @@ public class UserService {
         }
 
         user.setPassword(passwordEncoder.encode(newPassword));
+        user.setRefreshToken(null);
+        user.setRefreshTokenFamily(null);
+        user.setRefreshTokenExpiresAt(null);
+        int tokenVersion = user.bumpTokenVersion();
         userRepository.save(user);
+        userDetailsService.evict(number);
+        tokenVersionRegistry.publish(number, tokenVersion);
+        auditLog.record(user.getId(), UserAction.PASSWORD_CHANGED, null);
         log.info("Пароль успешно изменен для пользователя {}", number);
     }
 
     public void save(AppUser user) {
         log.info("Сохранение пользователя: {}", user.getNumber());
         userRepository.save(user);
+        userDetailsService.evict(user.getNumber());
         log.info("Пользователь успешно сохранен: {}", user.getNumber());
     }
 
+    @Transactional
+    public AppUser changeUserRole(UUID id, Role role) {
+        log.info("Изменение роли пользователя с ID {} на {}", id, role);
+        AppUser user = userRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Пользователь с ID " + id + " не найден."));
+        Role previousRole = user.getRole();
+        user.setRole(role);
+        int tokenVersion = user.bumpTokenVersion();
+        AppUser savedUser = userRepository.save(user);
+        userDetailsService.evict(savedUser.getNumber());
+        tokenVersionRegistry.publish(savedUser.getNumber(), tokenVersion);
+        auditLog.record(savedUser.getId(), UserAction.ROLE_CHANGED, previousRole + " -> " + role + ", " + actorDetails());
+        log.info("Роль пользователя с ID {} изменена на {}", id, role);
+        return savedUser;
+    }
+
     @Transactional
     public void blockUserByNumber(String userNumber) {
         log.info("Блокировка пользователя с номером: {}", userNumber);
@@ -163,7 +471,11 @@ public class UserService {
                     return new ResourceNotFoundException("Пользователь с таким номером телефона не найден.");
                 });
         user.lock();
+        int tokenVersion = user.bumpTokenVersion();
         userRepository.save(user);
+        userDetailsService.evict(userNumber);
+        tokenVersionRegistry.publish(userNumber, tokenVersion);
+        auditLog.record(user.getId(), UserAction.BLOCKED, actorDetails());
         log.info("Пользователь с номером {} заблокирован.", userNumber);
     }
 
@@ -176,7 +488,11 @@ public class UserService {
                     return new ResourceNotFoundException("Пользователь с таким номером телефона не найден.");
                 });
         user.unlock();
+        int tokenVersion = user.bumpTokenVersion();
         userRepository.save(user);
+        userDetailsService.evict(userNumber);
+        tokenVersionRegistry.publish(userNumber, tokenVersion);
+        auditLog.record(user.getId(), UserAction.UNBLOCKED, actorDetails());
         log.info("Пользователь с номером {} разблокирован.", userNumber);
     }
 
@@ -0,0 +1,49 @@
+-- Schema as previously generated by spring.jpa.hibernate.ddl-auto=update.
+-- Existing databases are baselined at this version and skip this script.
+
+create sequence if not exists products_seq start with 1 increment by 50;
+
+create table if not exists app_user (
+    id            uuid         not null,
+    name          varchar(50),
+    last_name     varchar(50),
+    number        varchar(15)  not null,
+    password      varchar(255) not null,
+    vk_id         varchar(100),
+    gender        varchar(255),
+    email         varchar(255),
+    enabled       boolean      not null,
+    locked        boolean      not null,
+    role          varchar(255) not null,
+    refresh_token varchar(255),
+    constraint app_user_pkey primary key (id),
+    constraint uk_app_user_number unique (number),
+    constraint uk_app_user_vk_id unique (vk_id),
+    constraint uk_app_user_email unique (email),
+    constraint app_user_gender_check check (gender in ('MALE', 'FEMALE', 'OTHER')),
+    constraint app_user_role_check check (role in ('USER', 'ADMIN', 'MODERATOR', 'GUEST'))
+);
+
+create table if not exists products (
+    id          bigint           not null,
+    price       double precision not null,
+    url         varchar(255)     not null,
+    gender      varchar(255)     not null,
+    description text,
+    category    varchar(255)     not null,
+    created_at  timestamp(6)     not null,
+    updated_at  timestamp(6)     not null,
+    constraint products_pkey primary key (id),
+    constraint uk_products_url unique (url),
+    constraint products_gender_check check (gender in ('MALE', 'FEMALE', 'OTHER'))
+);
+
+create table if not exists user_history (
+    id        uuid         not null,
+    user_id   uuid         not null,
+    action    varchar(255) not null,
+    timestamp timestamp(6) not null,
+    details   varchar(255),
+    constraint user_history_pkey primary key (id),
+    constraint fk_user_history_user foreign key (user_id) references app_user (id)
+);
@@ -0,0 +1,10 @@
+-- Indexes for the catalogue query paths in ProductRepository and ProductSpecifications.
+-- Keyset pages are ordered by (created_at, id) or (price, id), so each filter prefix ends with the sort key.
+
+create index if not exists idx_products_created_at_id on products (created_at, id);
+create index if not exists idx_products_price_id on products (price, id);
+create index if not exists idx_products_category_created_at on products (category, created_at, id);
+create index if not exists idx_products_gender_created_at on products (gender, created_at, id);
+create index if not exists idx_products_category_gender_price on products (category, gender, price, id);
+
+create index if not exists idx_user_history_user_id on user_history (user_id);
@@ -0,0 +1,12 @@
+-- Full-text search over the catalogue. The russian configuration stems Cyrillic words with
+-- russian_stem and ASCII words with english_stem, so one vector serves both languages.
+-- Category terms weigh more than description terms in ts_rank.
+
+alter table products
+    add column if not exists search_vector tsvector
+        generated always as (
+            setweight(to_tsvector('russian', coalesce(category, '')), 'A') ||
+            setweight(to_tsvector('russian', coalesce(description, '')), 'B')
+        ) stored;
+
+create index if not exists gin_products_search_vector on products using gin (search_vector);
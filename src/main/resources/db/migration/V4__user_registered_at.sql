@@ -0,0 +1,6 @@
+-- Registration time for the admin user listing. Existing accounts get the migration time.
+
+alter table app_user add column if not exists registered_at timestamp(6) not null default now();
+
+create index if not exists idx_app_user_registered_at_id on app_user (registered_at, id);
+create index if not exists idx_app_user_role_registered_at on app_user (role, registered_at, id);
@@ -0,0 +1,7 @@
+-- History rows go away with their user; otherwise deleting a user with history fails on the FK.
+alter table user_history drop constraint if exists fk_user_history_user;
+alter table user_history
+    add constraint fk_user_history_user foreign key (user_id) references app_user (id) on delete cascade;
+
+drop index if exists idx_user_history_user_id;
+create index if not exists idx_user_history_user_timestamp on user_history (user_id, timestamp desc, id desc);
@@ -0,0 +1,39 @@
+-- Monthly range partitions on timestamp. The primary key has to include the partition key.
+-- UserHistoryPartitionManager keeps future partitions ahead of time and archives expired ones.
+
+alter table user_history rename to user_history_legacy;
+alter table user_history_legacy rename constraint user_history_pkey to user_history_legacy_pkey;
+alter table user_history_legacy rename constraint fk_user_history_user to fk_user_history_legacy_user;
+drop index if exists idx_user_history_user_timestamp;
+
+create table user_history (
+    id        uuid         not null,
+    user_id   uuid         not null,
+    action    varchar(255) not null,
+    timestamp timestamp(6) not null,
+    details   varchar(255),
+    constraint user_history_pkey primary key (id, timestamp),
+    constraint fk_user_history_user foreign key (user_id) references app_user (id) on delete cascade
+) partition by range (timestamp);
+
+create index idx_user_history_user_timestamp on user_history (user_id, timestamp desc, id desc);
+
+-- Safety net for rows outside every monthly partition; it is expected to stay empty.
+create table user_history_default partition of user_history default;
+
+do $$
+declare
+    partition_start date := date_trunc('month', coalesce((select min(timestamp) from user_history_legacy), now()));
+    last_start      date := date_trunc('month', now() + interval '3 months');
+begin
+    while partition_start <= last_start loop
+        execute format('create table if not exists %I partition of user_history for values from (%L) to (%L)',
+                       'user_history_p' || to_char(partition_start, 'YYYYMM'), partition_start, partition_start + interval '1 month');
+        partition_start := partition_start + interval '1 month';
+    end loop;
+end $$;
+
+insert into user_history (id, user_id, action, timestamp, details)
+select id, user_id, action, timestamp, details from user_history_legacy;
+
+drop table user_history_legacy;
@@ -0,0 +1,5 @@
+-- Refresh-token expiry and the access-token version used for revocation.
+-- Databases baselined from the ddl-auto=update schema have neither column.
+
+alter table app_user add column if not exists refresh_token_expires_at timestamp(6);
+alter table app_user add column if not exists token_version integer not null default 0;
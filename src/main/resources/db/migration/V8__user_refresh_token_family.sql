@@ -0,0 +1,3 @@
+-- Hash of the refresh-token family: set at login, kept across rotations, used to tell reuse from forgery.
+
+alter table app_user add column if not exists refresh_token_family varchar(255);
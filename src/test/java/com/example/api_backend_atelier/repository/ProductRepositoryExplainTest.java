@@ -0,0 +1,227 @@
+package com.example.api_backend_atelier.repository;
+
+import com.example.api_backend_atelier.dto.ProductSearchCriteria;
+import com.example.api_backend_atelier.model.Gender;
+import com.example.api_backend_atelier.model.ProductSort;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.api_backend_atelier.repository.ProductRepositoryExplainTest$CapturingInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+@ExtendWith(ProductRepositoryExplainTest.DockerRequirement.class)
+class ProductRepositoryExplainTest {
+
+    private static final Set<String> INDEX_SCANS = Set.of("Index Scan", "Index Only Scan", "Bitmap Heap Scan");
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    static class DockerRequirement implements ExecutionCondition {
+
+        private static final Logger log = LoggerFactory.getLogger(DockerRequirement.class);
+
+        @Override
+        public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+            if (Boolean.getBoolean("docker.required") || DockerClientFactory.instance().isDockerAvailable()) {
+                return ConditionEvaluationResult.enabled("Docker доступен или обязателен");
+            }
+            if (context.getTestMethod().isEmpty()) {
+                log.warn("Docker недоступен: проверка использования индексов в {} ПРОПУЩЕНА. "
+                        + "Запустите с -Ddocker.required=true, чтобы отсутствие Docker считалось ошибкой.",
+                        context.getDisplayName());
+            }
+            return ConditionEvaluationResult.disabled("Docker недоступен, запуск без -Ddocker.required=true");
+        }
+    }
+
+    @BeforeEach
+    void disableSequentialScans() {
+        jdbcTemplate.execute("set local enable_seqscan = off");
+        jdbcTemplate.execute("set local plan_cache_mode = force_generic_plan");
+    }
+
+    @Test
+    void findByCategoryUsesIndex() {
+        assertUsesIndex(() -> productRepository.findByCategory("Платья"));
+    }
+
+    @Test
+    void findByGenderUsesIndex() {
+        assertUsesIndex(() -> productRepository.findByGender(Gender.FEMALE));
+    }
+
+    @Test
+    void findByPriceBetweenUsesIndex() {
+        assertUsesIndex(() -> productRepository.findByPriceBetween(100.0, 500.0));
+    }
+
+    @Test
+    void findByCreatedAtBetweenUsesIndex() {
+        assertUsesIndex(() -> productRepository.findByCreatedAtBetween(NOW.minusDays(7), NOW));
+    }
+
+    @Test
+    void findPageUsesIndex() {
+        assertUsesIndex(() -> productRepository.findPage(NOW, Long.MAX_VALUE, PageRequest.ofSize(21)));
+    }
+
+    @Test
+    void findPageByCategoryUsesIndex() {
+        assertUsesIndex(() -> productRepository.findPageByCategory("Платья", NOW, Long.MAX_VALUE, PageRequest.ofSize(21)));
+    }
+
+    @Test
+    void findPageByGenderUsesIndex() {
+        assertUsesIndex(() -> productRepository.findPageByGender(Gender.MALE, NOW, Long.MAX_VALUE, PageRequest.ofSize(21)));
+    }
+
+    @Test
+    void findPageByPriceBetweenUsesIndex() {
+        assertUsesIndex(() -> productRepository.findPageByPriceBetween(100.0, 500.0, NOW, Long.MAX_VALUE, PageRequest.ofSize(21)));
+    }
+
+    @Test
+    void findPageByCreatedAtBetweenUsesIndex() {
+        assertUsesIndex(() -> productRepository.findPageByCreatedAtBetween(NOW.minusDays(7), NOW, NOW, Long.MAX_VALUE,
+                PageRequest.ofSize(21)));
+    }
+
+    @Test
+    void streamAllForExportUsesIndex() {
+        assertUsesIndex(() -> {
+            try (Stream<?> products = productRepository.streamAllForExport()) {
+                products.findFirst();
+            }
+        });
+    }
+
+    @Test
+    void findExistingUrlsUsesIndex() {
+        assertUsesIndex(() -> productRepository.findExistingUrls(List.of("https://example.com/a", "https://example.com/b")));
+    }
+
+    @Test
+    void findSummariesByIdInUsesIndex() {
+        assertUsesIndex(() -> productRepository.findSummariesByIdIn(List.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void searchFullTextUsesIndex() {
+        assertUsesIndex(() -> productRepository.searchFullText("красное платье", Float.MAX_VALUE, Long.MAX_VALUE, 21));
+    }
+
+    @Test
+    void findSummariesUsesIndex() {
+        ProductSearchCriteria criteria = new ProductSearchCriteria("Платья", Gender.FEMALE, 100.0, 500.0,
+                null, null, ProductSort.PRICE_ASC);
+        assertUsesIndex(() -> productRepository.findSummaries(ProductSpecifications.matching(criteria, null),
+                criteria.sort().toSort(), 21));
+    }
+
+    private void assertUsesIndex(Runnable finder) {
+        CapturingInspector.statements.clear();
+        finder.run();
+        List<String> queries = CapturingInspector.statements.stream()
+                .filter(sql -> sql.toLowerCase().contains("products"))
+                .toList();
+        assertThat(queries).as("SQL запросы к products").isNotEmpty();
+
+        for (String sql : queries) {
+            String plan = explainGeneric(sql);
+            List<String> scans = new ArrayList<>();
+            try {
+                collectProductScans(objectMapper.readTree(plan).get(0).get("Plan"), scans);
+            } catch (Exception e) {
+                throw new AssertionError("Не удалось разобрать план: " + plan, e);
+            }
+            assertThat(scans).as("План запроса %s:%n%s", sql, plan).isNotEmpty();
+            assertThat(scans).as("План запроса %s:%n%s", sql, plan).allMatch(INDEX_SCANS::contains);
+        }
+    }
+
+    private static void collectProductScans(JsonNode node, List<String> scans) {
+        if (node.has("Relation Name") && "products".equals(node.get("Relation Name").asText())) {
+            scans.add(node.get("Node Type").asText());
+        }
+        if (node.has("Plans")) {
+            node.get("Plans").forEach(child -> collectProductScans(child, scans));
+        }
+    }
+
+    private String explainGeneric(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        boolean inLiteral = false;
+        int parameters = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+            if (c == '?' && !inLiteral) {
+                numbered.append('$').append(++parameters);
+            } else {
+                numbered.append(c);
+            }
+        }
+        String arguments = parameters == 0 ? "" : "(" + String.join(", ", Collections.nCopies(parameters, "null")) + ")";
+        jdbcTemplate.execute("prepare explained as " + numbered);
+        try {
+            return jdbcTemplate.queryForObject("explain (format json) execute explained" + arguments, String.class);
+        } finally {
+            jdbcTemplate.execute("deallocate explained");
+        }
+    }
+}